@@ -1,5 +1,8 @@
 package com.syntexa.api.config;
 
+import com.syntexa.api.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -16,11 +19,18 @@ public class AppConfig {
     /**
      * Provides a centrally managed PasswordEncoder bean for the application.
      * We use BCrypt, which is a strong, industry-standard hashing algorithm.
+     * Hashing runs on a bounded pool off the request threads; see {@link BoundedPasswordEncoder}.
      * @return A PasswordEncoder instance.
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${app.security.bcrypt.strength:10}") int strength,
+            @Value("${app.security.password-hashing.threads:0}") int threads,
+            @Value("${app.security.password-hashing.queue-capacity:64}") int queueCapacity,
+            MeterRegistry meterRegistry
+    ) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), poolSize, queueCapacity, meterRegistry);
     }
 
     /**
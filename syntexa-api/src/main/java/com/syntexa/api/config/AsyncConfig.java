@@ -0,0 +1,41 @@
+package com.syntexa.api.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Executors for work that is moved off the request path, and scheduled background work
+ * (e.g. NoteViewCounter's flush).
+ */
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class AsyncConfig {
+
+    /**
+     * Small bounded pool for post-signup onboarding. When the queue is full submissions are
+     * rejected rather than run on the signup thread; OnboardingService defers and retries them.
+     */
+    @Bean(name = "onboardingExecutor")
+    public Executor onboardingExecutor(
+            @Value("${app.onboarding.threads:2}") int threads,
+            @Value("${app.onboarding.queue-capacity:1000}") int queueCapacity
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("onboarding-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,91 @@
+package com.syntexa.api.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admits at most {@code permits} open connections at a time, queueing the rest on a fair
+ * semaphore. Sized to the pool, it keeps thousands of virtual threads parked cheaply here
+ * instead of contending inside the pool's own hand-off, and preserves arrival order.
+ */
+public class ConnectionLimitingDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMs;
+
+    public ConnectionLimitingDataSource(DataSource target, int permits, long acquireTimeoutMs) {
+        super(target);
+        this.permits = new Semaphore(permits, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int getQueueLength() {
+        return permits.getQueueLength();
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                        "Connection not available, request timed out after " + acquireTimeoutMs + "ms.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection", e);
+        }
+    }
+
+    // The permit is returned exactly once, when the caller closes the connection
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    } finally {
+                        if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                            permits.release();
+                        }
+                    }
+                });
+    }
+}
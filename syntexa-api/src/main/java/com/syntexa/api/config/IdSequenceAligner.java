@@ -0,0 +1,64 @@
+package com.syntexa.api.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.Map;
+
+/**
+ * Ids used to come from IDENTITY columns and now come from pooled sequences, which cost one
+ * round trip per {@value #ALLOCATION_SIZE} ids and let inserts be JDBC-batched. On PostgreSQL,
+ * moves each sequence past the table's current maximum id at startup so new ids never collide
+ * with rows written before the switch. Only ever moves a sequence forward. If the alignment
+ * fails, startup fails.
+ */
+@Component
+public class IdSequenceAligner implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(IdSequenceAligner.class);
+
+    // Must match the allocationSize of the entities' @SequenceGenerator
+    private static final int ALLOCATION_SIZE = 50;
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "notes_seq", "notes",
+            "problems_seq", "problems",
+            "app_users_seq", "app_users");
+
+    private final DataSource dataSource;
+
+    public IdSequenceAligner(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        String product;
+        try {
+            product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Could not determine the database to align id sequences", e);
+        }
+        if (!"PostgreSQL".equals(product)) {
+            return;
+        }
+        // Not caught: starting with a sequence behind MAX(id) would make later inserts collide
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        SEQUENCES.forEach((sequence, table) -> {
+            Long moved = jdbc.query(
+                    "SELECT setval('" + sequence + "', m + " + ALLOCATION_SIZE + ") "
+                            + "FROM (SELECT COALESCE(MAX(id), 0) AS m FROM " + table + ") t "
+                            + "WHERE (SELECT last_value FROM " + sequence + ") < m + " + ALLOCATION_SIZE,
+                    rs -> rs.next() ? rs.getLong(1) : null);
+            if (moved != null) {
+                log.info("Moved sequence {} to {} past existing ids in {}", sequence, moved, table);
+            }
+        });
+    }
+}
@@ -0,0 +1,53 @@
+package com.syntexa.api.config;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+
+/**
+ * Request-level metrics on top of what Actuator records out of the box: the controller method
+ * on {@code http.server.requests} and per-request SQL statement counts checked against
+ * {@link StatementBudget}s.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public ServerRequestObservationConvention handlerTaggingObservationConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                return super.getLowCardinalityKeyValues(context)
+                        .and(KeyValue.of("handler", RequestMetricsFilter.handlerName(context.getCarrier())));
+            }
+        };
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new RequestStatementCounter());
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestMetricsFilter> requestMetricsFilter(
+            MeterRegistry meterRegistry,
+            @Value("${app.sql.statement-budget.default:0}") int defaultBudget,
+            @Value("${app.sql.statement-budget.enforce:false}") boolean enforceBudget
+    ) {
+        FilterRegistrationBean<RequestMetricsFilter> registration =
+                new FilterRegistrationBean<>(new RequestMetricsFilter(meterRegistry, defaultBudget, enforceBudget));
+        // Outermost, so statements issued while authenticating the request are counted too
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
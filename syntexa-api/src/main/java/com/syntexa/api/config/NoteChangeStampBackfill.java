@@ -0,0 +1,39 @@
+package com.syntexa.api.config;
+
+import com.syntexa.api.repository.NoteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Notes written before change stamps existed have none, which would keep them out of the change
+ * feed. At startup, stamps them with 0 so a client's first sync (from the start) includes them.
+ */
+@Component
+public class NoteChangeStampBackfill implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(NoteChangeStampBackfill.class);
+
+    private final NoteRepository noteRepository;
+    private final TransactionTemplate writeTx;
+
+    public NoteChangeStampBackfill(NoteRepository noteRepository, PlatformTransactionManager transactionManager) {
+        this.noteRepository = noteRepository;
+        this.writeTx = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            Integer stamped = writeTx.execute(status -> noteRepository.stampUnstampedNotes());
+            if (stamped != null && stamped > 0) {
+                log.info("Added {} existing notes to the change feed", stamped);
+            }
+        } catch (Exception e) {
+            log.warn("Could not stamp existing notes for the change feed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.syntexa.api.config;
+
+import com.syntexa.api.model.Problem;
+import com.syntexa.api.repository.NoteRepository;
+import com.syntexa.api.repository.ProblemRepository;
+import com.syntexa.api.service.ProblemCatalog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Problems written before note statistics existed have a null note count. At startup, counts
+ * their notes once (in batches, with the problem rows locked so concurrent note writes on other
+ * instances wait) and stores the result; from then on every note write keeps them current.
+ */
+@Component
+public class ProblemNoteStatsBackfill implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(ProblemNoteStatsBackfill.class);
+    private static final int BATCH_SIZE = 200;
+
+    private final ProblemRepository problemRepository;
+    private final NoteRepository noteRepository;
+    private final ProblemCatalog problemCatalog;
+    private final TransactionTemplate writeTx;
+
+    public ProblemNoteStatsBackfill(ProblemRepository problemRepository, NoteRepository noteRepository,
+                                    ProblemCatalog problemCatalog, PlatformTransactionManager transactionManager) {
+        this.problemRepository = problemRepository;
+        this.noteRepository = noteRepository;
+        this.problemCatalog = problemCatalog;
+        this.writeTx = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            int filled = 0;
+            List<Long> ids;
+            while (!(ids = problemRepository.findIdsWithoutNoteStats(PageRequest.ofSize(BATCH_SIZE))).isEmpty()) {
+                List<Long> batch = ids;
+                filled += writeTx.execute(status -> fill(batch));
+            }
+            if (filled > 0) {
+                log.info("Computed note statistics for {} existing problems", filled);
+            }
+        } catch (Exception e) {
+            log.warn("Could not compute note statistics for existing problems: {}", e.getMessage());
+        }
+    }
+
+    private int fill(List<Long> ids) {
+        List<Problem> problems = problemRepository.findAllByIdForUpdate(ids);
+        Map<Long, Map<String, Integer>> languages = new HashMap<>();
+        for (Object[] row : noteRepository.countByProblemAndLanguage(ids)) {
+            languages.computeIfAbsent((Long) row[0], id -> new HashMap<>())
+                    .merge(Problem.languageKey((String) row[1]), ((Long) row[2]).intValue(), Integer::sum);
+        }
+        for (Problem problem : problems) {
+            Map<String, Integer> counts = languages.getOrDefault(problem.getId(), Map.of());
+            problem.setNoteStats(counts.values().stream().mapToInt(Integer::intValue).sum(), counts);
+            problemCatalog.updated(problem);
+        }
+        return problems.size();
+    }
+}
@@ -0,0 +1,67 @@
+package com.syntexa.api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Read/write splitting, enabled by setting {@code app.datasource.replica.url}. The primary pool
+ * is configured by {@code spring.datasource.*} as before; the replica gets its own pool, and the
+ * application's DataSource routes between them; see {@link ReadWriteRoutingDataSource}.
+ */
+@Configuration
+@ConditionalOnExpression("'${app.datasource.replica.url:}' != ''")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(
+            DataSourceProperties primaryProperties,
+            @Value("${app.datasource.replica.url}") String url,
+            @Value("${app.datasource.replica.username:}") String username,
+            @Value("${app.datasource.replica.password:}") String password,
+            @Value("${app.datasource.replica.maximum-pool-size:10}") int maximumPoolSize,
+            @Value("${app.datasource.replica.connection-timeout:1000}") long connectionTimeoutMs
+    ) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username.isEmpty() ? primaryProperties.determineUsername() : username);
+        dataSource.setPassword(password.isEmpty() ? primaryProperties.determinePassword() : password);
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        // Fail fast so reads fall back to the primary instead of waiting on a dead replica
+        dataSource.setConnectionTimeout(connectionTimeoutMs);
+        // Start even when the replica is down
+        dataSource.setInitializationFailTimeout(-1);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${app.datasource.replica.read-your-writes-ms:5000}") long readYourWritesMs,
+            @Value("${app.datasource.replica.retry-after-ms:30000}") long retryAfterMs
+    ) {
+        return new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primary, replica, readYourWritesMs, retryAfterMs));
+    }
+}
@@ -0,0 +1,180 @@
+package com.syntexa.api.config;
+
+import com.syntexa.api.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions started on request threads to the read replica and everything
+ * else (writes, reads outside a transaction, startup and background work) to the primary.
+ * Must sit behind a LazyConnectionDataSourceProxy, so the connection is only chosen once the
+ * transaction's read-only flag is known.
+ * <p>
+ * Read-your-writes: a client (the authenticated user, else the remote address) that ran a
+ * read-write transaction reads from the primary for the next {@code pinMillis}, which should
+ * exceed the usual replication lag. The pins are held per instance.
+ * <p>
+ * Reads that fill a cache shared by all clients (shared-note renderings, the problem catalog) run
+ * through {@link #readFromPrimary(Supplier)}: a lagging replica would otherwise leave a stale copy
+ * cached long after the client that wrote it stopped being pinned.
+ * <p>
+ * When the replica cannot hand out a connection, reads fall back to the primary and the replica
+ * is left alone for {@code retryAfterMillis} before it is tried again.
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+    private static final int MAX_PINNED_CLIENTS = 10_000;
+    private static final long PRUNE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    public enum Target { PRIMARY, REPLICA }
+
+    private static final ThreadLocal<Boolean> PRIMARY_READS = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long pinNanos;
+    private final long retryAfterNanos;
+    // Client key -> System.nanoTime() until which its reads go to the primary
+    private final ConcurrentHashMap<String, Long> pinnedUntil = new ConcurrentHashMap<>();
+    private volatile long nextPrune;
+    private volatile boolean replicaDown;
+    private volatile long replicaRetryAt;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, long pinMillis, long retryAfterMillis) {
+        this.primary = primary;
+        this.replica = replica;
+        this.pinNanos = TimeUnit.MILLISECONDS.toNanos(pinMillis);
+        this.retryAfterNanos = TimeUnit.MILLISECONDS.toNanos(retryAfterMillis);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (route() == Target.REPLICA) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                markReplicaDown(e);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (route() == Target.REPLICA) {
+            try {
+                return replica.getConnection(username, password);
+            } catch (SQLException e) {
+                markReplicaDown(e);
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Runs {@code work} with any connection it opens taken from the primary, without pinning the
+     * client. The connection must not be bound yet, so start the transaction inside {@code work}.
+     */
+    public static <T> T readFromPrimary(Supplier<T> work) {
+        if (PRIMARY_READS.get() != null) {
+            return work.get();
+        }
+        PRIMARY_READS.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            PRIMARY_READS.remove();
+        }
+    }
+
+    Target route() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || RequestContextHolder.getRequestAttributes() == null
+                || PRIMARY_READS.get() != null) {
+            return Target.PRIMARY;
+        }
+        String client = clientKey();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (client != null) {
+                pin(client);
+            }
+            return Target.PRIMARY;
+        }
+        if ((client != null && isPinned(client)) || !replicaAvailable()) {
+            return Target.PRIMARY;
+        }
+        return Target.REPLICA;
+    }
+
+    public boolean isReplicaDown() {
+        return replicaDown;
+    }
+
+    private boolean replicaAvailable() {
+        if (!replicaDown) {
+            return true;
+        }
+        if (System.nanoTime() - replicaRetryAt >= 0) {
+            // Let requests try the replica again; a failure sets a new retry time
+            replicaDown = false;
+            log.info("Retrying the read replica");
+            return true;
+        }
+        return false;
+    }
+
+    private void markReplicaDown(SQLException e) {
+        replicaRetryAt = System.nanoTime() + retryAfterNanos;
+        if (!replicaDown) {
+            replicaDown = true;
+            log.warn("Read replica unavailable, reading from the primary for {} ms: {}",
+                    TimeUnit.NANOSECONDS.toMillis(retryAfterNanos), e.getMessage());
+        }
+    }
+
+    private void pin(String client) {
+        long now = System.nanoTime();
+        pinnedUntil.put(client, now + pinNanos);
+        if (pinnedUntil.size() > MAX_PINNED_CLIENTS && now - nextPrune >= 0) {
+            nextPrune = now + PRUNE_INTERVAL_NANOS;
+            pinnedUntil.values().removeIf(until -> until - now < 0);
+        }
+    }
+
+    private boolean isPinned(String client) {
+        Long until = pinnedUntil.get(client);
+        if (until == null) {
+            return false;
+        }
+        if (until - System.nanoTime() < 0) {
+            pinnedUntil.remove(client, until);
+            return false;
+        }
+        return true;
+    }
+
+    private static String clientKey() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User user && user.getId() != null) {
+            return "user:" + user.getId();
+        }
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return "ip:" + attributes.getRequest().getRemoteAddr();
+        }
+        return null;
+    }
+}
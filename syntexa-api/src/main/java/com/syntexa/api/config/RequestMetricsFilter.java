@@ -0,0 +1,112 @@
+package com.syntexa.api.config;
+
+import com.syntexa.api.exception.StatementBudgetExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many SQL statements each request issued, tagged by the controller method
+ * that handled it ({@code http.server.requests.statements}), and checks the count against
+ * the handler's {@link StatementBudget}. Over-budget requests are logged and counted; with
+ * enforcement on (test profiles) they also fail with {@link StatementBudgetExceededException}.
+ */
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    public static final String NO_HANDLER = "none";
+    // Request attribute holding the statement count once the request has completed
+    public static final String STATEMENT_COUNT_ATTRIBUTE = RequestMetricsFilter.class.getName() + ".statementCount";
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestMetricsFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int defaultBudget;
+    private final boolean enforceBudget;
+
+    /**
+     * @param defaultBudget budget for handlers without {@link StatementBudget}; 0 or less means unlimited
+     * @param enforceBudget throw instead of only logging when a request goes over budget
+     */
+    public RequestMetricsFilter(MeterRegistry meterRegistry, int defaultBudget, boolean enforceBudget) {
+        this.meterRegistry = meterRegistry;
+        this.defaultBudget = defaultBudget;
+        this.enforceBudget = enforceBudget;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        RequestStatementCounter.begin();
+        int statements;
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            statements = RequestStatementCounter.end();
+            request.setAttribute(STATEMENT_COUNT_ATTRIBUTE, statements);
+        }
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (!(handler instanceof HandlerMethod method)) {
+            return;
+        }
+        String handlerName = handlerName(request);
+        DistributionSummary.builder("http.server.requests.statements")
+                .tag("handler", handlerName)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(statements);
+
+        int budget = budgetOf(method);
+        if (budget >= 0 && statements > budget) {
+            Counter.builder("http.server.requests.statements.over.budget")
+                    .tag("handler", handlerName)
+                    .register(meterRegistry)
+                    .increment();
+            String message = String.format("%s issued %d SQL statements, over its budget of %d (%s %s)",
+                    handlerName, statements, budget, request.getMethod(), request.getRequestURI());
+            if (enforceBudget) {
+                throw new StatementBudgetExceededException(message);
+            }
+            logger.warn(message);
+        }
+    }
+
+    // -1 when the handler has no budget
+    private int budgetOf(HandlerMethod method) {
+        StatementBudget budget = method.getMethodAnnotation(StatementBudget.class);
+        if (budget == null) {
+            budget = AnnotatedElementUtils.findMergedAnnotation(method.getBeanType(), StatementBudget.class);
+        }
+        if (budget != null) {
+            return budget.value();
+        }
+        return defaultBudget > 0 ? defaultBudget : -1;
+    }
+
+    /**
+     * The handling controller method as {@code SimpleClassName.method}, or {@value #NO_HANDLER}
+     * if the request never reached one (404s, requests rejected by security).
+     */
+    public static String handlerName(HttpServletRequest request) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (handler instanceof HandlerMethod method) {
+            return method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+        }
+        return NO_HANDLER;
+    }
+}
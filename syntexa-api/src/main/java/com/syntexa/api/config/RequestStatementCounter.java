@@ -0,0 +1,41 @@
+package com.syntexa.api.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread between {@link #begin()}
+ * and {@link #end()}. Registered as the session factory's statement inspector; it never
+ * rewrites the SQL.
+ */
+public class RequestStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> CURRENT = new ThreadLocal<>();
+
+    public static void begin() {
+        CURRENT.set(new int[1]);
+    }
+
+    /**
+     * Stops counting on this thread and returns the number of statements seen, or 0 if
+     * counting was never started.
+     */
+    public static int end() {
+        int[] count = CURRENT.get();
+        CURRENT.remove();
+        return count != null ? count[0] : 0;
+    }
+
+    public static int current() {
+        int[] count = CURRENT.get();
+        return count != null ? count[0] : 0;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = CURRENT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+}
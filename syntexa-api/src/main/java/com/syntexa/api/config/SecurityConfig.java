@@ -2,9 +2,18 @@ package com.syntexa.api.config;
 
 import com.syntexa.api.security.JwtAuthenticationFilter;
 import com.syntexa.api.security.JwtService;
+import com.syntexa.api.security.RateLimitFilter;
+import com.syntexa.api.security.RateLimitFilter.RouteGroup;
+import com.syntexa.api.security.TokenBucketRateLimiter;
 import com.syntexa.api.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -15,10 +24,13 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.web.context.support.WebApplicationContextUtils;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import static org.springframework.security.config.Customizer.withDefaults;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
@@ -47,23 +59,41 @@ public class SecurityConfig {    @Bean
         return source;
     }
 
+    // Requests served by the separate management server (actuator); that port is kept off the public network
     @Bean
+    @Order(1)
+    public SecurityFilterChain managementSecurityFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher(request -> WebServerApplicationContext.hasServerNamespace(
+                WebApplicationContextUtils.getWebApplicationContext(request.getServletContext()), "management"))
+            .csrf(csrf -> csrf.disable())
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .authorizeHttpRequests(auth -> auth.anyRequest().permitAll());
+        return http.build();
+    }
+
+    @Bean
+    @Order(2)
     public SecurityFilterChain securityFilterChain(
         HttpSecurity http,
         AuthenticationProvider authenticationProvider,
-        JwtAuthenticationFilter jwtAuthFilter
+        JwtAuthenticationFilter jwtAuthFilter,
+        RateLimitFilter rateLimitFilter
     ) throws Exception {
         http
             .cors(withDefaults())
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // Streaming responses resume on an ASYNC dispatch that was already authorized as a REQUEST
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers(HttpMethod.POST, "/api/v1/auth/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/v1/notes/shared/**").permitAll()
                 .anyRequest().authenticated()
             )
             .authenticationProvider(authenticationProvider)
-            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
         return http.build();
     }
 
@@ -81,7 +111,50 @@ public class SecurityConfig {    @Bean
     }
 
     @Bean
-    public JwtAuthenticationFilter jwtAuthFilter(JwtService jwtService, UserService userService) {
-        return new JwtAuthenticationFilter(jwtService, userService);
+    public JwtAuthenticationFilter jwtAuthFilter(
+        JwtService jwtService,
+        UserService userService,
+        @Value("${app.jwt.stateless-principal:false}") boolean statelessPrincipal
+    ) {
+        return new JwtAuthenticationFilter(jwtService, userService, statelessPrincipal);
+    }
+
+    // Limits per route group; a group with requests-per-minute=0 is not limited
+    @Bean
+    public RateLimitFilter rateLimitFilter(
+        @Value("${app.rate-limit.enabled:true}") boolean enabled,
+        @Value("${app.rate-limit.max-clients:100000}") int maxClients,
+        @Value("${app.rate-limit.idle-eviction-ms:600000}") long idleEvictionMs,
+        @Value("${app.rate-limit.auth.requests-per-minute:20}") int authPerMinute,
+        @Value("${app.rate-limit.auth.burst:10}") int authBurst,
+        @Value("${app.rate-limit.write.requests-per-minute:120}") int writePerMinute,
+        @Value("${app.rate-limit.write.burst:30}") int writeBurst,
+        @Value("${app.rate-limit.read.requests-per-minute:600}") int readPerMinute,
+        @Value("${app.rate-limit.read.burst:100}") int readBurst,
+        MeterRegistry meterRegistry
+    ) {
+        Map<RouteGroup, TokenBucketRateLimiter.Limit> limits = new EnumMap<>(RouteGroup.class);
+        if (enabled) {
+            putLimit(limits, RouteGroup.AUTH, authPerMinute, authBurst);
+            putLimit(limits, RouteGroup.WRITE, writePerMinute, writeBurst);
+            putLimit(limits, RouteGroup.READ, readPerMinute, readBurst);
+        }
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(
+            Runtime.getRuntime().availableProcessors() * 4, maxClients, idleEvictionMs, System.nanoTime());
+        return new RateLimitFilter(limiter, limits, meterRegistry);
+    }
+
+    private static void putLimit(Map<RouteGroup, TokenBucketRateLimiter.Limit> limits, RouteGroup group, int perMinute, int burst) {
+        if (perMinute > 0) {
+            limits.put(group, new TokenBucketRateLimiter.Limit(perMinute, burst));
+        }
+    }
+
+    // Runs inside the security chain only (it needs the authenticated user), not as a servlet filter too
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
     }
-}
\ No newline at end of file
+}
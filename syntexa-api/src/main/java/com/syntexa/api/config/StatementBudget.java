@@ -0,0 +1,19 @@
+package com.syntexa.api.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The most SQL statements a controller method may issue per request. Checked by
+ * {@link RequestMetricsFilter}; a method-level budget overrides a class-level one.
+ * Budgets assume principals are built from token claims ({@code app.jwt.stateless-principal=true}).
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface StatementBudget {
+    int value();
+}
@@ -0,0 +1,50 @@
+package com.syntexa.api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Opt-in virtual-thread request execution ({@code spring.threads.virtual.enabled=true}, which
+ * Spring Boot honours on Java 21+). Once requests are cheap to park, the connection pool is the
+ * real concurrency limit, so each connection pool is fronted by a semaphore sized to the pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(
+            Environment environment,
+            ObjectProvider<MeterRegistry> meterRegistry
+    ) {
+        Integer maxConcurrent = environment.getProperty("app.datasource.max-concurrent-connections", Integer.class);
+        // Only the pools are wrapped: with a read replica, each pool gets its own limiter and the
+        // routing DataSource in front of them is left as is
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource pool)) {
+                    return bean;
+                }
+                int permits = maxConcurrent != null ? maxConcurrent : pool.getMaximumPoolSize();
+                ConnectionLimitingDataSource limited = new ConnectionLimitingDataSource(pool, permits, pool.getConnectionTimeout());
+                meterRegistry.ifAvailable(registry -> {
+                    Gauge.builder("db.connection.limiter.waiting", limited, ConnectionLimitingDataSource::getQueueLength)
+                            .tag("pool", beanName)
+                            .register(registry);
+                    Gauge.builder("db.connection.limiter.available", limited, ConnectionLimitingDataSource::getAvailablePermits)
+                            .tag("pool", beanName)
+                            .register(registry);
+                });
+                return limited;
+            }
+        };
+    }
+}
@@ -1,8 +1,10 @@
 package com.syntexa.api.controller;
 
+import com.syntexa.api.config.StatementBudget;
 import com.syntexa.api.dto.JwtResponse;
 import com.syntexa.api.dto.LoginRequest;
 import com.syntexa.api.dto.SignUpRequest;
+import com.syntexa.api.exception.ServiceOverloadedException;
 import com.syntexa.api.model.User;
 import com.syntexa.api.security.JwtService;
 import com.syntexa.api.service.UserService;
@@ -31,6 +33,7 @@ public class AuthController {
     }
 
     @PostMapping("/signup")
+    @StatementBudget(4)
     public ResponseEntity<?> registerUser(@Valid @RequestBody SignUpRequest signUpRequest) {
         try {
             User newUser = new User();
@@ -41,12 +44,15 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.CREATED).body("User registered successfully! You can now log in.");
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (ServiceOverloadedException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An unexpected error occurred");
         }
     }
 
     @PostMapping("/login")
+    @StatementBudget(1)
     public ResponseEntity<?> loginUser(@Valid @RequestBody LoginRequest loginRequest) {
         try {
             Authentication authentication = authenticationManager.authenticate(
@@ -60,12 +66,15 @@ public class AuthController {
             return ResponseEntity.ok(jwtResponse);
         } catch (AuthenticationException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid username or password");
+        } catch (ServiceOverloadedException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An unexpected error occurred");
         }
     }
 
     @PostMapping("/refresh")
+    @StatementBudget(1)
     public ResponseEntity<?> refreshToken(HttpServletRequest request) {
         try {
             String authHeader = request.getHeader("Authorization");
@@ -0,0 +1,75 @@
+package com.syntexa.api.controller;
+
+import com.syntexa.api.dto.ImportReport;
+import com.syntexa.api.model.User;
+import com.syntexa.api.service.BulkTransferService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Newline-delimited JSON export/import of problems and of the caller's notes.
+ * Exports stream from a database cursor; imports are committed in chunks.
+ */
+@RestController
+@RequestMapping("/api/v1/bulk")
+public class BulkController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final BulkTransferService bulkTransferService;
+
+    public BulkController(BulkTransferService bulkTransferService) {
+        this.bulkTransferService = bulkTransferService;
+    }
+
+    @GetMapping("/problems/export")
+    public ResponseEntity<StreamingResponseBody> exportProblems() {
+        StreamingResponseBody body = bulkTransferService::exportProblems;
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"problems.ndjson\"")
+                .body(body);
+    }
+
+    @GetMapping("/notes/export")
+    public ResponseEntity<StreamingResponseBody> exportMyNotes(@AuthenticationPrincipal User user) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        StreamingResponseBody body = out -> bulkTransferService.exportNotes(user, out);
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"notes.ndjson\"")
+                .body(body);
+    }
+
+    @PostMapping("/problems/import")
+    public ResponseEntity<?> importProblems(HttpServletRequest request) {
+        try {
+            ImportReport report = bulkTransferService.importProblems(request.getInputStream());
+            return ResponseEntity.ok(report);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An unexpected error occurred");
+        }
+    }
+
+    // Notes are imported for the caller; each line references its problem by title
+    @PostMapping("/notes/import")
+    public ResponseEntity<?> importMyNotes(HttpServletRequest request, @AuthenticationPrincipal User user) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("You must be logged in to import notes.");
+        }
+        try {
+            ImportReport report = bulkTransferService.importNotes(request.getInputStream(), user);
+            return ResponseEntity.ok(report);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An unexpected error occurred");
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.syntexa.api.controller;
 
+import com.syntexa.api.config.StatementBudget;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -7,6 +8,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 @RequestMapping("/api/v1/demo") 
+@StatementBudget(0)
 public class DemoController {
 
     @GetMapping("/hello-secure")
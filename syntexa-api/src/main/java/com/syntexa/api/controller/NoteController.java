@@ -1,49 +1,164 @@
 package com.syntexa.api.controller;
 
+import com.syntexa.api.config.StatementBudget;
+import com.syntexa.api.dto.NoteBodyDTO;
 import com.syntexa.api.dto.UserProfileDTO;
-import com.syntexa.api.model.Note;
 import com.syntexa.api.model.User;
+import com.syntexa.api.service.NoteSearchService;
 import com.syntexa.api.service.NoteService;
+import com.syntexa.api.service.NoteViewCounter;
+import com.syntexa.api.service.SharedNoteCache.RenderedNote;
+import com.syntexa.api.service.UserService;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.nio.charset.StandardCharsets;
+
 @RestController
 @RequestMapping("/api/v1/notes")
 public class NoteController {
 
     private final NoteService noteService;
+    private final UserService userService;
+    private final NoteSearchService noteSearchService;
+    private final NoteViewCounter noteViewCounter;
 
-    public NoteController(NoteService noteService) {
+    public NoteController(NoteService noteService, UserService userService, NoteSearchService noteSearchService,
+                          NoteViewCounter noteViewCounter) {
         this.noteService = noteService;
+        this.userService = userService;
+        this.noteSearchService = noteSearchService;
+        this.noteViewCounter = noteViewCounter;
     }
 
-    // Only allow logged-in users to get their own notes
+    // Only allow logged-in users to get their own notes; paged by cursor, bodies only on request
     @GetMapping("/mine")
-    public ResponseEntity<?> getMyNotes(@AuthenticationPrincipal User user) {
+    @StatementBudget(1)
+    public ResponseEntity<?> getMyNotes(
+            @AuthenticationPrincipal User user,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeContent
+    ) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("You must be logged in to view your notes.");
+        }
+        try {
+            return ResponseEntity.ok(noteService.getNotesByAuthor(user, cursor, limit, includeContent));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    // Incremental sync: notes created, changed or deleted (tombstones) since the cursor from the last call.
+    // Without since, the feed starts from the beginning, so it also serves the initial full load.
+    @GetMapping("/mine/changes")
+    @StatementBudget(1)
+    public ResponseEntity<?> getMyNoteChanges(
+            @AuthenticationPrincipal User user,
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeContent
+    ) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("You must be logged in to view your notes.");
+        }
+        try {
+            return ResponseEntity.ok(noteService.getNoteChanges(user, since, limit, includeContent));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    // Ranked full-text search over the user's own notes (titles, problem titles and content)
+    @GetMapping("/search")
+    @StatementBudget(0)
+    public ResponseEntity<?> searchMyNotes(
+            @AuthenticationPrincipal User user,
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit
+    ) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("You must be logged in to search your notes.");
+        }
+        return ResponseEntity.ok(noteSearchService.search(q, user, limit));
+    }
+
+    // A note's body as UTF-8 text. Byte ranges (Range: bytes=...) return 206 with just that slice,
+    // so clients can page through very large notes. The ETag is the note's version (what If-Match on
+    // update/delete expects); it and Last-Modified change whenever the note does.
+    @GetMapping("/{noteId}/content")
+    @StatementBudget(1)
+    public ResponseEntity<?> getNoteContent(@PathVariable Long noteId, @AuthenticationPrincipal User user) {
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("You must be logged in to view your notes.");
         }
-        return ResponseEntity.ok(noteService.getNotesByAuthor(user));
+        try {
+            NoteBodyDTO body = noteService.getNoteBody(noteId, user);
+            long lastModified = body.getUpdatedAt() != null ? body.getUpdatedAt().toEpochMilli() : 0L;
+            return ResponseEntity.ok()
+                    .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .eTag(String.valueOf(body.getVersion()))
+                    .lastModified(lastModified)
+                    .body(new ByteArrayResource(body.getContent().getBytes(StandardCharsets.UTF_8)));
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("You are not the author of this note.");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
+    // How often the note was opened through its share link, for its author (views not yet written included)
+    @GetMapping("/{noteId}/views")
+    @StatementBudget(1)
+    public ResponseEntity<?> getNoteViews(@PathVariable Long noteId, @AuthenticationPrincipal User user) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("You must be logged in to view your notes.");
+        }
+        try {
+            return ResponseEntity.ok(noteViewCounter.getViews(noteId, user));
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("You are not the author of this note.");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
     }
 
     @GetMapping("/me")
+    @StatementBudget(1)
     public ResponseEntity<?> getCurrentUser(@AuthenticationPrincipal User user) {
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not logged in");
         }
+        // The principal may be built from token claims only; load the email on demand
+        User fullUser = userService.resolveFullUser(user);
         // Only return safe user info
-        return ResponseEntity.ok(new UserProfileDTO(user.getId(), user.getUsername(), user.getEmail()));
+        return ResponseEntity.ok(new UserProfileDTO(fullUser.getId(), fullUser.getUsername(), fullUser.getEmail()));
     }
 
     // --- SHARING ENDPOINT (public, read-only) ---
     @GetMapping("/shared/{shareToken}")
+    @StatementBudget(1)
     public ResponseEntity<?> getSharedNote(@PathVariable String shareToken) {
         try {
-            Note note = noteService.getNoteByShareToken(shareToken);
-            // Only return safe fields (no author email, etc.)
-            return ResponseEntity.ok(note);
+            // Only safe fields are rendered (no author email, etc.); the body is pre-serialized and cached.
+            // ETag/Last-Modified let clients and CDNs revalidate: Spring answers 304 when they match.
+            RenderedNote view = noteService.getSharedNoteView(shareToken);
+            // Counted in memory and written in batches, so a view never costs a write
+            noteViewCounter.record(view.getNoteId());
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .cacheControl(CacheControl.noCache().cachePublic())
+                    .eTag(view.getEtag())
+                    .lastModified(view.getLastModified())
+                    .body(view.getBody());
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
         } catch (Exception e) {
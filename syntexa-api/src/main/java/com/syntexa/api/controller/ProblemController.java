@@ -1,16 +1,16 @@
 package com.syntexa.api.controller;
 
+import com.syntexa.api.config.StatementBudget;
 import com.syntexa.api.dto.ProblemCreateRequest;
 import com.syntexa.api.model.Problem;
 import com.syntexa.api.service.ProblemService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/v1/problems")
 public class ProblemController {
@@ -21,24 +21,48 @@ public class ProblemController {
         this.problemService = problemService;
     }
 
+    // Keyset-paginated catalog: pass the returned nextCursor back to fetch the following page.
+    // Served from the in-memory catalog, whose items are already serialized.
     @GetMapping
-    public ResponseEntity<List<Problem>> getAllProblems() {
+    @StatementBudget(0)
+    public ResponseEntity<?> getAllProblems(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String q
+    ) {
         try {
-            List<Problem> problems = problemService.getAllProblems();
-            return ResponseEntity.ok(problems);
+            byte[] page = problemService.getProblemPage(cursor, limit, sort, q);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
         }
     }
 
+    // Typeahead for picking a problem: titles (or a word in them) starting with q, best matches first
+    @GetMapping("/suggest")
+    @StatementBudget(0)
+    public ResponseEntity<byte[]> suggestProblems(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(problemService.suggestProblems(q, limit));
+    }
+
+    // The problem comes from the catalog and only its notes are queried, plus one lookup for a
+    // problem the catalog does not hold yet
     @GetMapping("/{id}")
-    public ResponseEntity<Problem> getProblemById(@PathVariable Long id) {
-        return problemService.getProblemById(id)
-                .map(problem -> ResponseEntity.ok(problem))
+    @StatementBudget(2)
+    public ResponseEntity<byte[]> getProblemById(@PathVariable Long id) {
+        return problemService.getProblemDetail(id)
+                .map(detail -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(detail))
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Problem not found"));
     }
 
     @PostMapping
+    @StatementBudget(2)
     public ResponseEntity<?> createProblem(@Valid @RequestBody ProblemCreateRequest request) {
         try {
             Problem createdProblem = problemService.createProblem(request);
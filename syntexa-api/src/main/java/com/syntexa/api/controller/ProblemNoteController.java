@@ -1,16 +1,23 @@
 package com.syntexa.api.controller;
 
+import com.syntexa.api.config.StatementBudget;
+import com.syntexa.api.dto.NoteBatchCreateRequest;
 import com.syntexa.api.dto.NoteCreateRequest;
+import com.syntexa.api.dto.NoteDTO;
 import com.syntexa.api.model.Note;
 import com.syntexa.api.model.User;
 import com.syntexa.api.service.NoteService;
 import jakarta.validation.Valid;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v1/problems/{problemId}/notes")
 public class ProblemNoteController {
@@ -20,7 +27,9 @@ public class ProblemNoteController {
         this.noteService = noteService;
     }
 
+    // Problem lookup (locked), occasional id-sequence call, insert, problem statistics update
     @PostMapping
+    @StatementBudget(4)
     public ResponseEntity<?> createNote(
             @PathVariable Long problemId,
             @Valid @RequestBody NoteCreateRequest request,
@@ -36,16 +45,47 @@ public class ProblemNoteController {
         }
     }
 
+    // Many notes for one problem in one request and one transaction (inserts are JDBC-batched).
+    // Budget for the 500-note maximum: problem lookup, 11 id-sequence calls, 10 insert batches,
+    // problem statistics update
+    @PostMapping("/batch")
+    @StatementBudget(23)
+    public ResponseEntity<?> createNotes(
+            @PathVariable Long problemId,
+            @Valid @RequestBody NoteBatchCreateRequest request,
+            @AuthenticationPrincipal User user
+    ) {
+        try {
+            List<NoteDTO> created = noteService.createNotes(problemId, request.getNotes(), user);
+            return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An unexpected error occurred");
+        }
+    }
+
+    // One conditional UPDATE. When the language changes statistics bucket: the failed UPDATE, the
+    // note's version and language, the problem (locked), the pinned UPDATE and the statistics update.
+    // If-Match: "<version>" makes the edit fail with 412 once someone else has changed the note.
     @PutMapping("/{noteId}")
+    @StatementBudget(5)
     public ResponseEntity<?> updateNote(
             @PathVariable Long problemId,
             @PathVariable Long noteId,
             @Valid @RequestBody NoteCreateRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @AuthenticationPrincipal User user
     ) {
         try {
-            Note updated = noteService.updateNote(problemId, noteId, request, user);
-            return ResponseEntity.ok(updated);
+            Long version = noteService.updateNote(problemId, noteId, request, user, expectedVersion(ifMatch));
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (version != null) {
+                response.eTag(String.valueOf(version));
+            }
+            return response.build();
+        } catch (OptimisticLockingFailureException e) {
+            return versionConflict(ifMatch, e);
         } catch (AccessDeniedException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body("You are not the author of this note.");
         } catch (IllegalArgumentException e) {
@@ -55,17 +95,22 @@ public class ProblemNoteController {
         }
     }
 
+    // The note's version and language, the conditional DELETE, the problem (locked) and its statistics update
     @DeleteMapping("/{noteId}")
+    @StatementBudget(4)
     public ResponseEntity<?> deleteNote(
             @PathVariable Long problemId,
             @PathVariable Long noteId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @AuthenticationPrincipal User user
     ) {
         try {
-            noteService.deleteNote(problemId, noteId, user);
+            noteService.deleteNote(problemId, noteId, user, expectedVersion(ifMatch));
             return ResponseEntity.ok().build();
+        } catch (OptimisticLockingFailureException e) {
+            return versionConflict(ifMatch, e);
         } catch (AccessDeniedException e) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("You are not the author of this note.");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (Exception e) {
@@ -73,8 +118,33 @@ public class ProblemNoteController {
         }
     }
 
+    // The version named by If-Match ("<version>" as sent in the ETag), null for none or "*".
+    // Tags that cannot be a note version (weak or malformed) map to -1, which matches no note.
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    // 412 when the client's If-Match was stale; 409 when a concurrent request won without one
+    private static ResponseEntity<?> versionConflict(String ifMatch, OptimisticLockingFailureException e) {
+        HttpStatus status = expectedVersion(ifMatch) != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).body(e.getMessage());
+    }
+
     // --- SHARING ENDPOINTS ---
+    // The conditional UPDATE; the note is only read when it already had a token
     @PostMapping("/{noteId}/share")
+    @StatementBudget(2)
     public ResponseEntity<?> shareNote(
             @PathVariable Long problemId,
             @PathVariable Long noteId,
@@ -0,0 +1,50 @@
+package com.syntexa.api.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is opaque to clients
+ * and is {@code null} once the last page has been reached.
+ */
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+
+    public CursorPage() {}
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+    public boolean isHasMore() { return nextCursor != null; }
+
+    public static String encodeCursor(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Returns null for an absent cursor; rejects anything that is not one of ours.
+    public static String decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public static long decodeIdCursor(String cursor) {
+        String key = decodeCursor(cursor);
+        try {
+            return key == null ? 0L : Long.parseLong(key);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.syntexa.api.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportReport {
+    // Only the first errors are kept so a bad file cannot grow the report without bound
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    private int imported;
+    private int failed;
+    private List<LineError> errors = new ArrayList<>();
+
+    public void recordImported(int count) { imported += count; }
+    public void recordFailure(long line, String message) {
+        failed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new LineError(line, message));
+        }
+    }
+
+    public int getImported() { return imported; }
+    public int getFailed() { return failed; }
+    public List<LineError> getErrors() { return errors; }
+
+    public static class LineError {
+        private final long line;
+        private final String message;
+
+        public LineError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+        public long getLine() { return line; }
+        public String getMessage() { return message; }
+    }
+}
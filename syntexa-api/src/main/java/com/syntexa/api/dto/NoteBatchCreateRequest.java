@@ -0,0 +1,19 @@
+package com.syntexa.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class NoteBatchCreateRequest {
+
+    public static final int MAX_NOTES = 500;
+
+    @NotEmpty(message = "At least one note is required")
+    @Size(max = MAX_NOTES, message = "At most " + MAX_NOTES + " notes can be created at once")
+    private List<@Valid NoteCreateRequest> notes;
+
+    public List<NoteCreateRequest> getNotes() { return notes; }
+    public void setNotes(List<NoteCreateRequest> notes) { this.notes = notes; }
+}
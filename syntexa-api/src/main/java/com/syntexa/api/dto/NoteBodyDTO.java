@@ -0,0 +1,36 @@
+package com.syntexa.api.dto;
+
+import com.syntexa.api.model.NoteContent;
+
+import java.time.Instant;
+
+// A note's body on its own, with the fields needed to authorize and validate it
+public class NoteBodyDTO {
+    private Long id;
+    private Long authorId;
+    private String content;
+    private Instant updatedAt;
+    private long version;
+
+    public NoteBodyDTO() {}
+    public NoteBodyDTO(Long id, Long authorId, NoteContent content, Instant updatedAt, Long version) {
+        this(id, authorId, content != null ? content.getText() : null, updatedAt, version);
+    }
+    public NoteBodyDTO(Long id, Long authorId, String content, Instant updatedAt, Long version) {
+        this.id = id;
+        this.authorId = authorId;
+        this.content = content;
+        this.updatedAt = updatedAt;
+        this.version = version != null ? version : 0L;
+    }
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getAuthorId() { return authorId; }
+    public void setAuthorId(Long authorId) { this.authorId = authorId; }
+    public String getContent() { return content; }
+    public void setContent(String content) { this.content = content; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+}
@@ -0,0 +1,26 @@
+package com.syntexa.api.dto;
+
+import com.syntexa.api.model.NoteContent;
+import jakarta.validation.constraints.NotBlank;
+
+// One NDJSON line of a note export/import; the problem is referenced by its (unique) title
+public class NoteBulkRecord extends NoteCreateRequest {
+
+    @NotBlank(message = "Problem title cannot be blank")
+    private String problemTitle;
+
+    public NoteBulkRecord() {}
+    public NoteBulkRecord(String approachTitle, NoteContent content, String language, String problemTitle) {
+        this(approachTitle, content != null ? content.getText() : null, language, problemTitle);
+    }
+    public NoteBulkRecord(String approachTitle, String content, String language, String problemTitle) {
+        setApproachTitle(approachTitle);
+        setContent(content);
+        setLanguage(language);
+        this.problemTitle = problemTitle;
+    }
+
+    // --- GETTERS AND SETTERS ---
+    public String getProblemTitle() { return problemTitle; }
+    public void setProblemTitle(String problemTitle) { this.problemTitle = problemTitle; }
+}
@@ -0,0 +1,49 @@
+package com.syntexa.api.dto;
+
+// One entry of the change feed: the note as it is now, or just its id when it was deleted
+public class NoteChangeDTO {
+    private Long id;
+    private boolean deleted;
+    private Long version;
+    private String approachTitle;
+    private String content;
+    private String language;
+    private Long problemId;
+    private String problemTitle;
+    private String shareToken;
+
+    public NoteChangeDTO() {}
+    public NoteChangeDTO(Long id, boolean deleted, Long version, String approachTitle, String content, String language,
+                         Long problemId, String problemTitle, String shareToken) {
+        this.id = id;
+        this.deleted = deleted;
+        this.version = version;
+        this.approachTitle = approachTitle;
+        this.content = content;
+        this.language = language;
+        this.problemId = problemId;
+        this.problemTitle = problemTitle;
+        this.shareToken = shareToken;
+    }
+    public static NoteChangeDTO tombstone(Long id, Long version) {
+        return new NoteChangeDTO(id, true, version, null, null, null, null, null, null);
+    }
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public boolean isDeleted() { return deleted; }
+    public void setDeleted(boolean deleted) { this.deleted = deleted; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    public String getApproachTitle() { return approachTitle; }
+    public void setApproachTitle(String approachTitle) { this.approachTitle = approachTitle; }
+    public String getContent() { return content; }
+    public void setContent(String content) { this.content = content; }
+    public String getLanguage() { return language; }
+    public void setLanguage(String language) { this.language = language; }
+    public Long getProblemId() { return problemId; }
+    public void setProblemId(Long problemId) { this.problemId = problemId; }
+    public String getProblemTitle() { return problemTitle; }
+    public void setProblemTitle(String problemTitle) { this.problemTitle = problemTitle; }
+    public String getShareToken() { return shareToken; }
+    public void setShareToken(String shareToken) { this.shareToken = shareToken; }
+}
@@ -0,0 +1,15 @@
+package com.syntexa.api.dto;
+
+// One row of NoteRepository.findChangesByAuthorId; content is the stored (possibly compressed) column value
+public interface NoteChangeRow {
+    Long getId();
+    String getApproachTitle();
+    String getLanguage();
+    String getContent();
+    Long getProblemId();
+    String getProblemTitle();
+    String getShareToken();
+    Long getVersion();
+    Long getChangeStamp();
+    Boolean getDeleted();
+}
@@ -0,0 +1,30 @@
+package com.syntexa.api.dto;
+
+import java.util.List;
+
+/**
+ * A page of the note change feed. Clients apply {@code changes} in order (upsert by id, or remove
+ * when {@code deleted}) and pass {@code cursor} as {@code since} next time. Recent changes can be
+ * delivered again on the next call; applying them twice is harmless. {@code hasMore} means another
+ * page is available right away. When it is false the client is caught up as far as the feed can
+ * tell yet: changes still inside the settle window (and any beyond a full page of them) arrive on a
+ * later poll.
+ */
+public class NoteChangesDTO {
+    private List<NoteChangeDTO> changes;
+    private String cursor;
+    private boolean hasMore;
+
+    public NoteChangesDTO() {}
+    public NoteChangesDTO(List<NoteChangeDTO> changes, String cursor, boolean hasMore) {
+        this.changes = changes;
+        this.cursor = cursor;
+        this.hasMore = hasMore;
+    }
+    public List<NoteChangeDTO> getChanges() { return changes; }
+    public void setChanges(List<NoteChangeDTO> changes) { this.changes = changes; }
+    public String getCursor() { return cursor; }
+    public void setCursor(String cursor) { this.cursor = cursor; }
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
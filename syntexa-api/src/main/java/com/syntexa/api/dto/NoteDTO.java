@@ -1,5 +1,7 @@
 package com.syntexa.api.dto;
 
+import com.syntexa.api.model.NoteContent;
+
 public class NoteDTO {
     private Long id;
     private String approachTitle;
@@ -21,6 +23,18 @@ public class NoteDTO {
         this.shareToken = shareToken;
         this.isStarter = isStarter;
     }
+    // Used by the NoteRepository constructor projections; content is only selected when requested
+    public NoteDTO(Long id, String approachTitle, String language, Long problemId, String problemTitle, String shareToken) {
+        this(id, approachTitle, (String) null, language, problemId, problemTitle, shareToken);
+    }
+    // Query projection: the body is decompressed here, once, if it was stored compressed
+    public NoteDTO(Long id, String approachTitle, NoteContent content, String language, Long problemId, String problemTitle, String shareToken) {
+        this(id, approachTitle, content != null ? content.getText() : null, language, problemId, problemTitle, shareToken);
+    }
+    public NoteDTO(Long id, String approachTitle, String content, String language, Long problemId, String problemTitle, String shareToken) {
+        this(id, approachTitle, content, language, problemId, problemTitle, shareToken,
+                shareToken != null && shareToken.startsWith("starter-note-"));
+    }
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
     public String getApproachTitle() { return approachTitle; }
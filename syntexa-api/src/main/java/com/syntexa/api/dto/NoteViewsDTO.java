@@ -0,0 +1,21 @@
+package com.syntexa.api.dto;
+
+// How often a note was opened through its share link (persisted plus not yet flushed)
+public class NoteViewsDTO {
+    private Long noteId;
+    private Long authorId;
+    private long views;
+
+    public NoteViewsDTO() {}
+    public NoteViewsDTO(Long noteId, Long authorId, Long views) {
+        this.noteId = noteId;
+        this.authorId = authorId;
+        this.views = views != null ? views : 0L;
+    }
+    public Long getNoteId() { return noteId; }
+    public void setNoteId(Long noteId) { this.noteId = noteId; }
+    public Long getAuthorId() { return authorId; }
+    public void setAuthorId(Long authorId) { this.authorId = authorId; }
+    public long getViews() { return views; }
+    public void setViews(long views) { this.views = views; }
+}
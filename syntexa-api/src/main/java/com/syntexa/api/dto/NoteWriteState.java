@@ -0,0 +1,24 @@
+package com.syntexa.api.dto;
+
+// A note's ownership and version, read to explain a conditional write that matched no row and
+// to learn the old language when a write moves the note between statistics buckets
+public class NoteWriteState {
+    private final Long problemId;
+    private final Long authorId;
+    private final long version;
+    private final String language;
+    private final String shareToken;
+
+    public NoteWriteState(Long problemId, Long authorId, Long version, String language, String shareToken) {
+        this.problemId = problemId;
+        this.authorId = authorId;
+        this.version = version != null ? version : 0L;
+        this.language = language;
+        this.shareToken = shareToken;
+    }
+    public Long getProblemId() { return problemId; }
+    public Long getAuthorId() { return authorId; }
+    public long getVersion() { return version; }
+    public String getLanguage() { return language; }
+    public String getShareToken() { return shareToken; }
+}
@@ -12,6 +12,12 @@ public class ProblemCreateRequest {
     @Size(max = 5000)
     private String description;
 
+    public ProblemCreateRequest() {}
+    public ProblemCreateRequest(String title, String description) {
+        this.title = title;
+        this.description = description;
+    }
+
     // --- GETTERS AND SETTERS ---
     public String getTitle() { return title; }
     public void setTitle(String title) { this.title = title; }
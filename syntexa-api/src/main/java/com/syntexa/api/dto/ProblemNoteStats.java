@@ -0,0 +1,40 @@
+package com.syntexa.api.dto;
+
+import com.syntexa.api.model.Problem;
+
+import java.util.Map;
+
+// A problem's fields and note statistics, read without locking for a conditional statistics update;
+// the change stamp it was read at is what the update checks
+public class ProblemNoteStats {
+    private final Long id;
+    private final String title;
+    private final String description;
+    private final Integer noteCount;
+    private final Map<String, Integer> noteLanguages;
+    private final long changeStamp;
+
+    public ProblemNoteStats(Long id, String title, String description, Integer noteCount,
+                            Map<String, Integer> noteLanguages, Long changeStamp) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.noteCount = noteCount;
+        this.noteLanguages = noteLanguages;
+        this.changeStamp = changeStamp != null ? changeStamp : 0L;
+    }
+    public Integer getNoteCount() { return noteCount; }
+    public long getChangeStamp() { return changeStamp; }
+
+    // A detached copy to apply a change to and to render into the catalog
+    public Problem toProblem() {
+        Problem problem = new Problem();
+        problem.setId(id);
+        problem.setTitle(title);
+        problem.setDescription(description);
+        if (noteCount != null) {
+            problem.setNoteStats(noteCount, noteLanguages != null ? noteLanguages : Map.of());
+        }
+        return problem;
+    }
+}
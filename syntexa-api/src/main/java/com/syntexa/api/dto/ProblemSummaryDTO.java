@@ -0,0 +1,29 @@
+package com.syntexa.api.dto;
+
+import java.util.Map;
+
+public class ProblemSummaryDTO {
+    private Long id;
+    private String title;
+    private Integer noteCount;
+    private Map<String, Integer> noteLanguages;
+
+    public ProblemSummaryDTO() {}
+    public ProblemSummaryDTO(Long id, String title) {
+        this.id = id;
+        this.title = title;
+    }
+    public ProblemSummaryDTO(Long id, String title, Integer noteCount, Map<String, Integer> noteLanguages) {
+        this(id, title);
+        this.noteCount = noteCount;
+        this.noteLanguages = noteLanguages;
+    }
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public Integer getNoteCount() { return noteCount; }
+    public void setNoteCount(Integer noteCount) { this.noteCount = noteCount; }
+    public Map<String, Integer> getNoteLanguages() { return noteLanguages; }
+    public void setNoteLanguages(Map<String, Integer> noteLanguages) { this.noteLanguages = noteLanguages; }
+}
@@ -0,0 +1,55 @@
+package com.syntexa.api.dto;
+
+import com.syntexa.api.model.NoteContent;
+
+import java.time.Instant;
+
+// Public view of a shared note: no author email or other private fields
+public class SharedNoteDTO {
+    private Long id;
+    private String approachTitle;
+    private String content;
+    private String language;
+    private String shareToken;
+    private Long problemId;
+    private String problemTitle;
+    private String authorUsername;
+    private Instant updatedAt;
+
+    public SharedNoteDTO() {}
+    public SharedNoteDTO(Long id, String approachTitle, NoteContent content, String language, String shareToken,
+                         Long problemId, String problemTitle, String authorUsername, Instant updatedAt) {
+        this(id, approachTitle, content != null ? content.getText() : null, language, shareToken,
+                problemId, problemTitle, authorUsername, updatedAt);
+    }
+    public SharedNoteDTO(Long id, String approachTitle, String content, String language, String shareToken,
+                         Long problemId, String problemTitle, String authorUsername, Instant updatedAt) {
+        this.id = id;
+        this.approachTitle = approachTitle;
+        this.content = content;
+        this.language = language;
+        this.shareToken = shareToken;
+        this.problemId = problemId;
+        this.problemTitle = problemTitle;
+        this.authorUsername = authorUsername;
+        this.updatedAt = updatedAt;
+    }
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getApproachTitle() { return approachTitle; }
+    public void setApproachTitle(String approachTitle) { this.approachTitle = approachTitle; }
+    public String getContent() { return content; }
+    public void setContent(String content) { this.content = content; }
+    public String getLanguage() { return language; }
+    public void setLanguage(String language) { this.language = language; }
+    public String getShareToken() { return shareToken; }
+    public void setShareToken(String shareToken) { this.shareToken = shareToken; }
+    public Long getProblemId() { return problemId; }
+    public void setProblemId(Long problemId) { this.problemId = problemId; }
+    public String getProblemTitle() { return problemTitle; }
+    public void setProblemTitle(String problemTitle) { this.problemTitle = problemTitle; }
+    public String getAuthorUsername() { return authorUsername; }
+    public void setAuthorUsername(String authorUsername) { this.authorUsername = authorUsername; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,88 @@
+package com.syntexa.api.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A keyset page that is written while it is read: each row goes from the database cursor
+ * straight through the response's JSON generator, so the page is never held as a list.
+ * Serializes to the same shape as {@link CursorPage}. The row source runs (and opens its
+ * cursor) when the response body is written, on the request thread.
+ */
+public class StreamedCursorPage<T> implements JsonSerializable {
+
+    // Runs the page query and passes each row, in order, to the consumer while the cursor is open
+    @FunctionalInterface
+    public interface RowSource<T> {
+        void forEachRow(Consumer<? super T> consumer);
+    }
+
+    private final RowSource<T> source;
+    private final int pageSize;
+    private final Function<T, String> cursorKey;
+
+    /**
+     * @param source    yields up to {@code pageSize + 1} rows; the extra row only signals another page
+     * @param cursorKey the keyset value of a row, encoded into {@code nextCursor}
+     */
+    public StreamedCursorPage(RowSource<T> source, int pageSize, Function<T, String> cursorKey) {
+        this.source = source;
+        this.pageSize = pageSize;
+        this.cursorKey = cursorKey;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        gen.writeStartObject();
+        gen.writeArrayFieldStart("items");
+        RowWriter writer = new RowWriter(gen, serializers);
+        try {
+            source.forEachRow(writer);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        gen.writeEndArray();
+        String nextCursor = writer.count > pageSize ? CursorPage.encodeCursor(cursorKey.apply(writer.last)) : null;
+        gen.writeStringField("nextCursor", nextCursor);
+        gen.writeBooleanField("hasMore", nextCursor != null);
+        gen.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+            throws IOException {
+        serialize(gen, serializers);
+    }
+
+    private class RowWriter implements Consumer<T> {
+        private final JsonGenerator gen;
+        private final SerializerProvider serializers;
+        private int count;
+        private T last;
+
+        RowWriter(JsonGenerator gen, SerializerProvider serializers) {
+            this.gen = gen;
+            this.serializers = serializers;
+        }
+
+        @Override
+        public void accept(T row) {
+            if (count++ >= pageSize) {
+                return;
+            }
+            try {
+                serializers.defaultSerializeValue(row, gen);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            last = row;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.syntexa.api.exception;
 
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.AuthenticationException;
@@ -51,6 +52,15 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(message, HttpStatus.BAD_REQUEST);
     }
 
+    // Handles bounded resources (e.g. password hashing) refusing work under load
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<String> handleServiceOverloaded(ServiceOverloadedException ex) {
+        logger.warn("Service overloaded: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ex.getMessage());
+    }
+
     // Handles other common errors, like creating a note for a problem that doesn't exist
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<String> handleRuntimeException(RuntimeException ex) {
@@ -0,0 +1,10 @@
+package com.syntexa.api.exception;
+
+/**
+ * Thrown when a bounded resource refuses new work. Mapped to 503 so clients back off and retry.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+}
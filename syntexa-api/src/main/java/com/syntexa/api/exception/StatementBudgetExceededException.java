@@ -0,0 +1,11 @@
+package com.syntexa.api.exception;
+
+/**
+ * Thrown when budget enforcement is on and a request issued more SQL statements than its
+ * handler's {@link com.syntexa.api.config.StatementBudget}. Meant to fail tests, not to run in production.
+ */
+public class StatementBudgetExceededException extends IllegalStateException {
+    public StatementBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,27 @@
+package com.syntexa.api.model;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Change stamps for the note change feed: microseconds since the epoch, made strictly increasing
+ * within this process. Across instances (and against commit order) they are only as ordered as
+ * the clocks, so the feed never moves its cursor past stamps younger than a settle window.
+ */
+public final class ChangeStamps {
+
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private ChangeStamps() {
+    }
+
+    public static long next() {
+        long now = currentMicros();
+        return LAST.updateAndGet(previous -> Math.max(previous + 1, now));
+    }
+
+    public static long currentMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000L + now.getNano() / 1_000;
+    }
+}
@@ -2,20 +2,38 @@ package com.syntexa.api.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Mutability;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.type.descriptor.java.Immutability;
+import java.time.Instant;
 
 @Entity
-@Table(name = "notes")
-@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@Table(name = "notes", indexes = {
+        @Index(name = "idx_notes_user_id", columnList = "user_id, id"),
+        @Index(name = "idx_notes_problem_id", columnList = "problem_id"),
+        @Index(name = "idx_notes_user_change", columnList = "user_id, change_stamp, id")
+})
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler", "changeStamp", "deletedAt"})
+// Deleted notes stay behind as tombstones for the change feed (NoteRepository.findChangesByAuthorId);
+// everything else, queries and collections included, sees only live notes
+@SQLRestriction("deleted_at IS NULL")
 public class Note {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence, see IdSequenceAligner
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notes_id")
+    @SequenceGenerator(name = "notes_id", sequenceName = "notes_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
     private String approachTitle;
 
+    // Loaded by a separate select on first access (bytecode-enhanced), so fetching a note for its
+    // metadata never reads the body. Large bodies are stored compressed; see NoteContent
+    @Basic(fetch = FetchType.LAZY)
     @Column(columnDefinition = "TEXT", nullable = false)
-    private String content;
+    @Convert(converter = NoteContentConverter.class)
+    @Mutability(Immutability.class)
+    private NoteContent content;
 
     @Column(nullable = true)
     private String language;
@@ -23,6 +41,22 @@ public class Note {
     @Column(unique = true)
     private String shareToken;
 
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    // Bumped by every conditional write in NoteRepository and sent as the note's ETag, so an
+    // If-Match edit based on an older read fails instead of overwriting. Rows written before the
+    // column existed read as version 0.
+    @Column(name = "version")
+    private Long version = 0L;
+
+    // Position in the author's change feed, set on every write; see ChangeStamps
+    @Column(name = "change_stamp")
+    private Long changeStamp;
+
+    @Column(name = "deleted_at")
+    private Instant deletedAt;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "problem_id", nullable = false)
     @JsonIgnoreProperties({"notes", "author", "problem"})
@@ -33,6 +67,13 @@ public class Note {
     @JsonIgnoreProperties({"notes", "email", "password", "enabled", "accountNonExpired", "credentialsNonExpired", "accountNonLocked", "authorities"})
     private User author;
 
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        this.updatedAt = Instant.now();
+        this.changeStamp = ChangeStamps.next();
+    }
+
     public Long getId() {
         return id;
     }
@@ -50,11 +91,11 @@ public class Note {
     }
 
     public String getContent() {
-        return content;
+        return content != null ? content.getText() : null;
     }
 
     public void setContent(String content) {
-        this.content = content;
+        this.content = NoteContent.ofText(content);
     }
 
     public String getLanguage() {
@@ -88,4 +129,36 @@ public class Note {
     public void setAuthor(User author) {
         this.author = author;
     }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public long getVersion() {
+        return version != null ? version : 0L;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getChangeStamp() {
+        return changeStamp;
+    }
+
+    public void setChangeStamp(Long changeStamp) {
+        this.changeStamp = changeStamp;
+    }
+
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(Instant deletedAt) {
+        this.deletedAt = deletedAt;
+    }
 }
@@ -0,0 +1,136 @@
+package com.syntexa.api.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A note body together with its stored form in {@code notes.content}. Bodies above a size
+ * threshold are stored Deflate-compressed and Base64-encoded behind a marker prefix; values
+ * without the marker are plain text, so rows written before compression was introduced read
+ * unchanged and are compressed the next time they are saved. Loaded bodies are only
+ * decompressed on the first call to {@link #getText()}.
+ */
+public final class NoteContent {
+
+    static final String COMPRESSED_PREFIX = "\u0001z:";
+    // Plain text that happens to start with the marker character is stored behind this prefix
+    static final String ESCAPED_PREFIX = "\u0001p:";
+
+    // The column value; null for new content until it is first written
+    private final String stored;
+    private volatile String text;
+
+    private NoteContent(String stored, String text) {
+        this.stored = stored;
+        this.text = text;
+    }
+
+    public static NoteContent ofText(String text) {
+        return text != null ? new NoteContent(null, text) : null;
+    }
+
+    public static NoteContent ofStored(String stored) {
+        if (stored == null) {
+            return null;
+        }
+        boolean encoded = stored.startsWith(COMPRESSED_PREFIX) || stored.startsWith(ESCAPED_PREFIX);
+        return new NoteContent(stored, encoded ? null : stored);
+    }
+
+    public String getText() {
+        String current = text;
+        if (current == null) {
+            current = decode(stored);
+            text = current;
+        }
+        return current;
+    }
+
+    public boolean isCompressed() {
+        return stored != null && stored.startsWith(COMPRESSED_PREFIX);
+    }
+
+    /**
+     * The column value: loaded content is written back as it was read; new content is
+     * compressed when it is at least {@code minCompressBytes} long and compression pays off.
+     */
+    public String toStored(int minCompressBytes) {
+        return stored != null ? stored : encode(text, minCompressBytes);
+    }
+
+    static String encode(String text, int minCompressBytes) {
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        if (minCompressBytes > 0 && utf8.length >= minCompressBytes) {
+            String compressed = COMPRESSED_PREFIX + Base64.getEncoder().encodeToString(deflate(utf8));
+            if (compressed.length() < utf8.length) {
+                return compressed;
+            }
+        }
+        return text.startsWith("\u0001") ? ESCAPED_PREFIX + text : text;
+    }
+
+    static String decode(String stored) {
+        if (stored.startsWith(COMPRESSED_PREFIX)) {
+            byte[] compressed = Base64.getDecoder().decode(stored.substring(COMPRESSED_PREFIX.length()));
+            return new String(inflate(compressed), StandardCharsets.UTF_8);
+        }
+        if (stored.startsWith(ESCAPED_PREFIX)) {
+            return stored.substring(ESCAPED_PREFIX.length());
+        }
+        return stored;
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 4 + 16);
+        try (DeflaterOutputStream deflating = new DeflaterOutputStream(out, deflater)) {
+            deflating.write(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] inflate(byte[] input) {
+        try (InflaterInputStream inflating = new InflaterInputStream(new ByteArrayInputStream(input))) {
+            return inflating.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Stored note content is corrupt", e);
+        }
+    }
+
+    // Loaded values compare by stored form, so dirty checking never has to decompress them
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof NoteContent other)) {
+            return false;
+        }
+        if (stored != null && other.stored != null) {
+            return stored.equals(other.stored);
+        }
+        return getText().equals(other.getText());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getText());
+    }
+
+    @Override
+    public String toString() {
+        return getText();
+    }
+}
@@ -0,0 +1,29 @@
+package com.syntexa.api.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.springframework.beans.factory.annotation.Value;
+
+/**
+ * Maps {@link NoteContent} to the TEXT column. Created through Spring, so the compression
+ * threshold comes from {@code app.notes.compression.min-bytes} (0 disables compression).
+ */
+@Converter
+public class NoteContentConverter implements AttributeConverter<NoteContent, String> {
+
+    private final int minCompressBytes;
+
+    public NoteContentConverter(@Value("${app.notes.compression.min-bytes:4096}") int minCompressBytes) {
+        this.minCompressBytes = minCompressBytes;
+    }
+
+    @Override
+    public String convertToDatabaseColumn(NoteContent content) {
+        return content != null ? content.toStored(minCompressBytes) : null;
+    }
+
+    @Override
+    public NoteContent convertToEntityAttribute(String stored) {
+        return NoteContent.ofStored(stored);
+    }
+}
@@ -0,0 +1,40 @@
+package com.syntexa.api.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Stores a problem's per-language note counts as a small JSON object, e.g. {"java":3,"python":1}.
+ * Read back as an unmodifiable map; {@link Problem} replaces the map whenever a count changes.
+ */
+@Converter
+public class NoteLanguageCountsConverter implements AttributeConverter<Map<String, Integer>, String> {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<TreeMap<String, Integer>> TYPE = new TypeReference<>() {};
+
+    @Override
+    public String convertToDatabaseColumn(Map<String, Integer> counts) {
+        try {
+            return counts != null ? MAPPER.writeValueAsString(counts) : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not write note language counts", e);
+        }
+    }
+
+    @Override
+    public Map<String, Integer> convertToEntityAttribute(String stored) {
+        try {
+            return stored != null ? Collections.unmodifiableMap(MAPPER.readValue(stored, TYPE)) : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read note language counts", e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.syntexa.api.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Persisted shared-view count of a note; written in batches by NoteViewCounter, never per view
+@Entity
+@Table(name = "note_view_counts")
+public class NoteViewCount {
+    @Id
+    @Column(name = "note_id")
+    private Long noteId;
+
+    @Column(name = "view_count", nullable = false)
+    private long viewCount;
+
+    public Long getNoteId() {
+        return noteId;
+    }
+
+    public void setNoteId(Long noteId) {
+        this.noteId = noteId;
+    }
+
+    public long getViewCount() {
+        return viewCount;
+    }
+
+    public void setViewCount(long viewCount) {
+        this.viewCount = viewCount;
+    }
+}
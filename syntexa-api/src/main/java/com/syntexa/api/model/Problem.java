@@ -2,15 +2,23 @@ package com.syntexa.api.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Mutability;
+import org.hibernate.type.descriptor.java.Immutability;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Entity
-@Table(name = "problems")
-@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@Table(name = "problems", indexes = @Index(name = "idx_problems_change", columnList = "change_stamp"))
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler", "changeStamp"})
 public class Problem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence, see IdSequenceAligner
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "problems_id")
+    @SequenceGenerator(name = "problems_id", sequenceName = "problems_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -19,10 +27,29 @@ public class Problem {
     @Column(columnDefinition = "TEXT")
     private String description;
 
+    // Listed without bodies (those load lazily per note); clients fetch a body from /notes/{id}/content
     @OneToMany(mappedBy = "problem", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-    @JsonIgnoreProperties({"problem", "author", "notes"})
+    @JsonIgnoreProperties({"problem", "author", "notes", "content"})
     private List<Note> notes = new ArrayList<>();
 
+    // Note statistics, updated in the same transaction as every note write (with the row locked, or
+    // for onboarding's starter notes by a conditional UPDATE on the change stamp).
+    // Null on rows that predate them until ProblemNoteStatsBackfill has counted their notes.
+    @Column(name = "note_count")
+    private Integer noteCount = 0;
+
+    @Column(name = "note_languages", columnDefinition = "TEXT")
+    @Convert(converter = NoteLanguageCountsConverter.class)
+    @Mutability(Immutability.class)
+    private Map<String, Integer> noteLanguages = Collections.emptyMap();
+
+    // Set on every write, so ProblemCatalog can refresh only the problems changed since its last pass
+    @Column(name = "change_stamp")
+    private Long changeStamp;
+
+    // Notes without a language are counted under this key
+    public static final String UNSPECIFIED_LANGUAGE = "unspecified";
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
     public String getTitle() { return title; }
@@ -31,4 +58,54 @@ public class Problem {
     public void setDescription(String description) { this.description = description; }
     public List<Note> getNotes() { return notes; }
     public void setNotes(List<Note> notes) { this.notes = notes; }
+    public Long getChangeStamp() { return changeStamp; }
+    public Integer getNoteCount() { return noteCount; }
+    public Map<String, Integer> getNoteLanguages() { return noteLanguages; }
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        this.changeStamp = ChangeStamps.next();
+    }
+
+    public void setNoteStats(int noteCount, Map<String, Integer> noteLanguages) {
+        this.noteCount = noteCount;
+        this.noteLanguages = Collections.unmodifiableMap(new TreeMap<>(noteLanguages));
+    }
+
+    public void recordNoteAdded(String language) {
+        if (noteCount != null) {
+            setNoteStats(noteCount + 1, adjusted(noteLanguages, languageKey(language), 1));
+        }
+    }
+
+    public void recordNoteRemoved(String language) {
+        if (noteCount != null) {
+            setNoteStats(Math.max(0, noteCount - 1), adjusted(noteLanguages, languageKey(language), -1));
+        }
+    }
+
+    public void recordNoteLanguageChanged(String from, String to) {
+        String fromKey = languageKey(from);
+        String toKey = languageKey(to);
+        if (noteCount != null && !fromKey.equals(toKey)) {
+            setNoteStats(noteCount, adjusted(adjusted(noteLanguages, fromKey, -1), toKey, 1));
+        }
+    }
+
+    // Languages are free text on notes; count "Java" and "java " together
+    public static String languageKey(String language) {
+        return language == null || language.isBlank() ? UNSPECIFIED_LANGUAGE : language.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Map<String, Integer> adjusted(Map<String, Integer> counts, String key, int delta) {
+        Map<String, Integer> copy = new TreeMap<>(counts);
+        int count = copy.getOrDefault(key, 0) + delta;
+        if (count > 0) {
+            copy.put(key, count);
+        } else {
+            copy.remove(key);
+        }
+        return copy;
+    }
 }
\ No newline at end of file
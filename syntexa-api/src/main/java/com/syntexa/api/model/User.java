@@ -14,7 +14,9 @@ import java.util.List;
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class User implements UserDetails {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence, see IdSequenceAligner
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "app_users_id")
+    @SequenceGenerator(name = "app_users_id", sequenceName = "app_users_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 50)
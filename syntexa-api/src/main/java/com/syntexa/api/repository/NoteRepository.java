@@ -1,15 +1,154 @@
 package com.syntexa.api.repository;
 
+import com.syntexa.api.dto.NoteBodyDTO;
+import com.syntexa.api.dto.NoteBulkRecord;
+import com.syntexa.api.dto.NoteChangeRow;
+import com.syntexa.api.dto.NoteDTO;
+import com.syntexa.api.dto.NoteWriteState;
+import com.syntexa.api.dto.SharedNoteDTO;
 import com.syntexa.api.model.Note;
-import com.syntexa.api.model.User;
+import com.syntexa.api.model.NoteContent;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface NoteRepository extends JpaRepository<Note, Long> {
-    // Add custom query methods if needed in the future
-    List<Note> findAllByAuthor(User author);
     Note findByShareToken(String shareToken);
-}
\ No newline at end of file
+    boolean existsByShareToken(String shareToken);
+
+    // Full notes (including the lazy body) with their problem, in id order, for rebuilding in-memory indexes in batches
+    @Query("SELECT n FROM Note n WHERE n.id > :afterId ORDER BY n.id ASC")
+    @EntityGraph(attributePaths = {"problem", "content"})
+    List<Note> findBatchWithProblemAfterId(@Param("afterId") long afterId, Pageable pageable);
+
+    // A problem's notes without their bodies, for the problem detail (the problem itself comes from ProblemCatalog)
+    @Query("SELECT n FROM Note n WHERE n.problem.id = :problemId ORDER BY n.id ASC")
+    List<Note> findByProblemId(@Param("problemId") Long problemId);
+
+    // Rows of (problem id, language, note count), for computing problems' note statistics from scratch
+    @Query("SELECT n.problem.id, n.language, COUNT(n) FROM Note n WHERE n.problem.id IN :problemIds " +
+           "GROUP BY n.problem.id, n.language")
+    List<Object[]> countByProblemAndLanguage(@Param("problemIds") Collection<Long> problemIds);
+
+    // Just the body and what is needed to authorize and validate it; no join
+    @Query("SELECT new com.syntexa.api.dto.NoteBodyDTO(n.id, n.author.id, n.content, n.updatedAt, n.version) FROM Note n WHERE n.id = :id")
+    Optional<NoteBodyDTO> findBody(@Param("id") Long id);
+
+    @Query("SELECT new com.syntexa.api.dto.SharedNoteDTO(n.id, n.approachTitle, n.content, n.language, n.shareToken, " +
+           "p.id, p.title, a.username, n.updatedAt) " +
+           "FROM Note n JOIN n.problem p JOIN n.author a WHERE n.shareToken = :shareToken")
+    Optional<SharedNoteDTO> findSharedView(@Param("shareToken") String shareToken);
+
+    // Keyset pages of an author's notes joined to their problem in a single statement.
+    // Streamed from a cursor into the response; must be consumed inside a transaction.
+    @Query("SELECT new com.syntexa.api.dto.NoteDTO(n.id, n.approachTitle, n.language, p.id, p.title, n.shareToken) " +
+           "FROM Note n JOIN n.problem p WHERE n.author.id = :authorId AND n.id > :afterId ORDER BY n.id ASC")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    Stream<NoteDTO> streamSummariesByAuthorId(@Param("authorId") Long authorId,
+                                              @Param("afterId") long afterId,
+                                              Pageable pageable);
+
+    @Query("SELECT new com.syntexa.api.dto.NoteDTO(n.id, n.approachTitle, n.content, n.language, p.id, p.title, n.shareToken) " +
+           "FROM Note n JOIN n.problem p WHERE n.author.id = :authorId AND n.id > :afterId ORDER BY n.id ASC")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    Stream<NoteDTO> streamDetailsByAuthorId(@Param("authorId") Long authorId,
+                                            @Param("afterId") long afterId,
+                                            Pageable pageable);
+
+    // Cursor-backed stream for NDJSON export; must be consumed inside a transaction
+    @Query("SELECT new com.syntexa.api.dto.NoteBulkRecord(n.approachTitle, n.content, n.language, p.title) " +
+           "FROM Note n JOIN n.problem p WHERE n.author.id = :authorId ORDER BY n.id ASC")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<NoteBulkRecord> streamByAuthorIdForExport(@Param("authorId") Long authorId);
+
+    // Conditional single-statement writes: the note must be live and belong to the problem and the
+    // author and, when expectedVersion is given, still be at that version. A row count of 0 means a
+    // check failed; findWriteState tells which. Each write bumps the version and the change stamp.
+
+    // languageKey (Problem.languageKey of the new language), when given, also requires the stored
+    // language to have the same key, so a matching row means the problem's statistics are unchanged
+    @Modifying
+    @Query("UPDATE Note n SET n.approachTitle = :approachTitle, n.content = :content, n.language = :language, " +
+           "n.updatedAt = :now, n.version = COALESCE(n.version, 0) + 1, n.changeStamp = :changeStamp " +
+           "WHERE n.id = :id AND n.problem.id = :problemId AND n.author.id = :authorId AND n.deletedAt IS NULL " +
+           "AND (:expectedVersion IS NULL OR COALESCE(n.version, 0) = :expectedVersion) " +
+           "AND (:languageKey IS NULL OR COALESCE(NULLIF(LOWER(TRIM(n.language)), ''), 'unspecified') = :languageKey)")
+    int updateIfOwned(@Param("id") Long id,
+                      @Param("problemId") Long problemId,
+                      @Param("authorId") Long authorId,
+                      @Param("expectedVersion") Long expectedVersion,
+                      @Param("languageKey") String languageKey,
+                      @Param("approachTitle") String approachTitle,
+                      @Param("content") NoteContent content,
+                      @Param("language") String language,
+                      @Param("now") Instant now,
+                      @Param("changeStamp") long changeStamp);
+
+    // Deleting leaves a tombstone (body cleared) for clients syncing through the change feed.
+    // Starter notes (share token "starter-note-<user id>") are never deleted
+    @Modifying
+    @Query("UPDATE Note n SET n.deletedAt = :now, n.updatedAt = :now, n.content = :emptyContent, " +
+           "n.version = COALESCE(n.version, 0) + 1, n.changeStamp = :changeStamp " +
+           "WHERE n.id = :id AND n.problem.id = :problemId AND n.author.id = :authorId AND n.deletedAt IS NULL " +
+           "AND (n.shareToken IS NULL OR n.shareToken NOT LIKE 'starter-note-%') " +
+           "AND (:expectedVersion IS NULL OR COALESCE(n.version, 0) = :expectedVersion)")
+    int deleteIfOwned(@Param("id") Long id,
+                      @Param("problemId") Long problemId,
+                      @Param("authorId") Long authorId,
+                      @Param("expectedVersion") Long expectedVersion,
+                      @Param("emptyContent") NoteContent emptyContent,
+                      @Param("now") Instant now,
+                      @Param("changeStamp") long changeStamp);
+
+    // Sets the share token unless the note already has one
+    @Modifying
+    @Query("UPDATE Note n SET n.shareToken = :shareToken, n.version = COALESCE(n.version, 0) + 1, " +
+           "n.changeStamp = :changeStamp " +
+           "WHERE n.id = :id AND n.author.id = :authorId AND n.deletedAt IS NULL " +
+           "AND (n.shareToken IS NULL OR n.shareToken = '')")
+    int setShareTokenIfAbsent(@Param("id") Long id,
+                              @Param("authorId") Long authorId,
+                              @Param("shareToken") String shareToken,
+                              @Param("changeStamp") long changeStamp);
+
+    @Query("SELECT new com.syntexa.api.dto.NoteWriteState(n.problem.id, n.author.id, n.version, n.language, n.shareToken) " +
+           "FROM Note n WHERE n.id = :id")
+    Optional<NoteWriteState> findWriteState(@Param("id") Long id);
+
+    // The author's change feed: live notes and tombstones after the (changeStamp, id) keyset position,
+    // in feed order. Native because the entity's restriction hides tombstones from HQL.
+    @Query(value = "SELECT n.id AS \"id\", n.approach_title AS \"approachTitle\", n.language AS \"language\", " +
+                   "CASE WHEN :includeContent = TRUE THEN n.content END AS \"content\", " +
+                   "n.problem_id AS \"problemId\", p.title AS \"problemTitle\", n.share_token AS \"shareToken\", " +
+                   "n.version AS \"version\", n.change_stamp AS \"changeStamp\", " +
+                   "CASE WHEN n.deleted_at IS NULL THEN FALSE ELSE TRUE END AS \"deleted\" " +
+                   "FROM notes n JOIN problems p ON p.id = n.problem_id " +
+                   "WHERE n.user_id = :authorId AND (n.change_stamp > :afterStamp " +
+                   "OR (n.change_stamp = :afterStamp AND n.id > :afterId)) " +
+                   "ORDER BY n.change_stamp ASC, n.id ASC LIMIT :limit",
+           nativeQuery = true)
+    List<NoteChangeRow> findChangesByAuthorId(@Param("authorId") Long authorId,
+                                              @Param("afterStamp") long afterStamp,
+                                              @Param("afterId") long afterId,
+                                              @Param("includeContent") boolean includeContent,
+                                              @Param("limit") int limit);
+
+    // Rows written before change stamps existed join the feed at its start
+    @Modifying
+    @Query("UPDATE Note n SET n.changeStamp = 0 WHERE n.changeStamp IS NULL")
+    int stampUnstampedNotes();
+}
@@ -0,0 +1,19 @@
+package com.syntexa.api.repository;
+
+import com.syntexa.api.dto.NoteViewsDTO;
+import com.syntexa.api.model.NoteViewCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface NoteViewCountRepository extends JpaRepository<NoteViewCount, Long> {
+
+    // The note's author (for the ownership check) and its persisted view count, in one query
+    @Query("SELECT new com.syntexa.api.dto.NoteViewsDTO(n.id, n.author.id, v.viewCount) " +
+           "FROM Note n LEFT JOIN NoteViewCount v ON v.noteId = n.id WHERE n.id = :noteId")
+    Optional<NoteViewsDTO> findViews(@Param("noteId") Long noteId);
+}
@@ -1,10 +1,67 @@
 package com.syntexa.api.repository;
 
+import com.syntexa.api.dto.ProblemCreateRequest;
+import com.syntexa.api.dto.ProblemNoteStats;
+import com.syntexa.api.dto.ProblemSummaryDTO;
 import com.syntexa.api.model.Problem;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 public interface ProblemRepository extends JpaRepository<Problem, Long> {
-    // Add custom query methods if needed in the future
-}
\ No newline at end of file
+    Optional<Problem> findByTitle(String title);
+
+    // Locks the rows whose note statistics are about to change; ordered by id so writers
+    // locking several problems always take the locks in the same order.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Problem p WHERE p.id = :id")
+    Optional<Problem> findByIdForUpdate(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Problem p WHERE p.id IN :ids ORDER BY p.id ASC")
+    List<Problem> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.syntexa.api.dto.ProblemNoteStats(p.id, p.title, p.description, p.noteCount, p.noteLanguages, p.changeStamp) " +
+           "FROM Problem p WHERE p.id = :id")
+    Optional<ProblemNoteStats> findNoteStats(@Param("id") Long id);
+
+    // Sets the note statistics only if the row is unchanged since it was read at expectedStamp:
+    // a single UPDATE in place of SELECT ... FOR UPDATE for hot rows. Returns 0 if it was changed.
+    @Modifying
+    @Query("UPDATE Problem p SET p.noteCount = :noteCount, p.noteLanguages = :noteLanguages, p.changeStamp = :changeStamp " +
+           "WHERE p.id = :id AND COALESCE(p.changeStamp, 0) = :expectedStamp")
+    int updateNoteStatsIfUnchanged(@Param("id") Long id, @Param("noteCount") int noteCount,
+                                   @Param("noteLanguages") Map<String, Integer> noteLanguages,
+                                   @Param("changeStamp") long changeStamp, @Param("expectedStamp") long expectedStamp);
+
+    // Problems written since a change stamp, for ProblemCatalog's incremental refresh
+    @Query("SELECT p FROM Problem p WHERE p.changeStamp >= :since")
+    List<Problem> findChangedSince(@Param("since") long since);
+
+    // Problems whose note statistics have not been computed yet (rows older than the statistics)
+    @Query("SELECT p.id FROM Problem p WHERE p.noteCount IS NULL ORDER BY p.id ASC")
+    List<Long> findIdsWithoutNoteStats(Pageable pageable);
+
+    @Query("SELECT new com.syntexa.api.dto.ProblemSummaryDTO(p.id, p.title) FROM Problem p WHERE p.title IN :titles")
+    List<ProblemSummaryDTO> findSummariesByTitleIn(@Param("titles") Collection<String> titles);
+
+    // Cursor-backed stream for NDJSON export; must be consumed inside a transaction
+    @Query("SELECT new com.syntexa.api.dto.ProblemCreateRequest(p.title, p.description) FROM Problem p ORDER BY p.id ASC")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<ProblemCreateRequest> streamAllForExport();
+}
@@ -0,0 +1,93 @@
+package com.syntexa.api.security;
+
+import com.syntexa.api.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs password hashing and verification on a dedicated, size-bounded pool so that a burst
+ * of signups or logins cannot occupy every CPU. When the pool's queue is full the call is
+ * rejected immediately with {@link ServiceOverloadedException} instead of piling up.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedCounter;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executor = new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.encodeTimer = Timer.builder("auth.password.hash")
+                .tag("operation", "encode")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("auth.password.hash")
+                .tag("operation", "matches")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.password.rejected").register(meterRegistry);
+        meterRegistry.gauge("auth.password.queue.depth", executor, e -> e.getQueue().size());
+        meterRegistry.gauge("auth.password.active", executor, ThreadPoolExecutor::getActiveCount);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> encodeTimer.record(() -> delegate.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new ServiceOverloadedException("Authentication service is busy, please retry shortly.");
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
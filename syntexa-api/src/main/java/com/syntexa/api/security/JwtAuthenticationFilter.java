@@ -1,28 +1,41 @@
 package com.syntexa.api.security;
 
+import com.syntexa.api.model.User;
 import com.syntexa.api.service.UserService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserService userService;
+    private final boolean statelessPrincipal;
 
-    public JwtAuthenticationFilter(JwtService jwtService, UserService userService) {
+    public JwtAuthenticationFilter(
+            JwtService jwtService,
+            UserService userService,
+            @Value("${app.jwt.stateless-principal:false}") boolean statelessPrincipal
+    ) {
         this.jwtService = jwtService;
         this.userService = userService;
+        this.statelessPrincipal = statelessPrincipal;
     }
 
     @Override
@@ -39,21 +52,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         final String jwt = authHeader.substring(7);
-        final String username;
+        // Signature and expiry are verified once here; everything below works off these claims
+        final Claims claims;
         try {
-            username = jwtService.extractUsername(jwt);
+            claims = jwtService.verifyToken(jwt);
         } catch (Exception e) {
             filterChain.doFilter(request, response);
             return;
         }
-        
+
+        final String username = claims.getSubject();
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userService.loadUserByUsername(username);
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            Long userId = jwtService.extractUserId(claims);
+            // Tokens issued before the uid claim existed still go through the database lookup
+            UserDetails userDetails = statelessPrincipal && userId != null
+                    ? principalFromClaims(userId, username)
+                    : this.userService.loadUserByUsername(username);
+            if (jwtService.isTokenValid(claims, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
-                        userDetails.getAuthorities()
+                        authoritiesFor(claims, userDetails)
                 );
                 authToken.setDetails(
                         new WebAuthenticationDetailsSource().buildDetails(request)
@@ -63,4 +82,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    // Lightweight principal carrying only what the token asserts; see UserService.resolveFullUser
+    private User principalFromClaims(Long userId, String username) {
+        User principal = new User();
+        principal.setId(userId);
+        principal.setUsername(username);
+        return principal;
+    }
+
+    private Collection<? extends GrantedAuthority> authoritiesFor(Claims claims, UserDetails userDetails) {
+        List<String> roles = jwtService.extractRoles(claims);
+        if (!statelessPrincipal || roles.isEmpty()) {
+            return userDetails.getAuthorities();
+        }
+        return roles.stream().map(SimpleGrantedAuthority::new).toList();
+    }
 }
\ No newline at end of file
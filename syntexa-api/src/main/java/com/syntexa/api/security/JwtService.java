@@ -1,39 +1,104 @@
 package com.syntexa.api.security;
 
+import com.syntexa.api.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Component
 public class JwtService {
 
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLES = "roles";
+
     @Value("${app.jwt.secret}")
     private String jwtSecret;
 
     @Value("${app.jwt.expiration-ms}")
     private int jwtExpirationMs;
 
+    // Maximum number of verified tokens remembered; 0 disables the cache.
+    @Value("${app.jwt.verified-cache-size:0}")
+    private int verifiedCacheSize;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private Key signInKey;
+    private JwtParser parser;
+    private Timer verifiedTimer;
+    private Timer cachedTimer;
+    private Timer rejectedTimer;
+
+    // A full cache is swept for expired tokens at most this often, so misses stay O(1) when it is full of live ones
+    private static final long SWEEP_INTERVAL_MS = 1000;
+
+    // Keyed by the token's signature segment; entries are dropped once the token expires.
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+    private volatile long nextSweep;
+
+    @PostConstruct
+    void init() {
+        byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
+        this.signInKey = Keys.hmacShaKeyFor(keyBytes);
+        // JwtParser is immutable and thread-safe once built, so one instance serves every request
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signInKey)
+                .build();
+        MeterRegistry registry = meterRegistry != null ? meterRegistry : new SimpleMeterRegistry();
+        this.verifiedTimer = verifyTimer(registry, "verified");
+        this.cachedTimer = verifyTimer(registry, "cached");
+        this.rejectedTimer = verifyTimer(registry, "rejected");
+    }
+
+    private static Timer verifyTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("auth.jwt.verify")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = verifyToken(token);
         return claimsResolver.apply(claims);
     }
 
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+        // Carry the user id and authorities so the filter can authenticate without a user lookup
+        Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof User user && user.getId() != null) {
+            claims.put(CLAIM_USER_ID, user.getId());
+        }
+        claims.put(CLAIM_ROLES, userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
+        return generateToken(claims, userDetails);
     }
 
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
@@ -42,33 +107,92 @@ public class JwtService {
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(getSignInKey(), io.jsonwebtoken.SignatureAlgorithm.HS256)
+                .signWith(signInKey, io.jsonwebtoken.SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+    /**
+     * Verifies the token's signature and expiry exactly once and returns its claims.
+     * Throws a {@link io.jsonwebtoken.JwtException} if the token is malformed, forged or expired.
+     */
+    public Claims verifyToken(String token) {
+        long start = System.nanoTime();
+        if (verifiedCacheSize <= 0) {
+            return parse(token, start);
+        }
+        String signature = token.substring(token.lastIndexOf('.') + 1);
+        VerifiedToken cached = verifiedTokens.get(signature);
+        long now = System.currentTimeMillis();
+        if (cached != null && cached.token.equals(token)) {
+            if (cached.expiresAt > now) {
+                cachedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return cached.claims;
+            }
+            verifiedTokens.remove(signature, cached);
+            rejectedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw new ExpiredJwtException(null, cached.claims, "JWT expired at " + new Date(cached.expiresAt));
+        }
+        Claims claims = parse(token, start);
+        remember(signature, token, claims, now);
+        return claims;
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private Claims parse(String token, long start) {
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            verifiedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return claims;
+        } catch (JwtException | IllegalArgumentException e) {
+            rejectedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return userDetails.getUsername().equals(claims.getSubject()) && !isTokenExpired(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public Long extractUserId(Claims claims) {
+        return claims.get(CLAIM_USER_ID, Long.class);
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    @SuppressWarnings("unchecked")
+    public List<String> extractRoles(Claims claims) {
+        Object roles = claims.get(CLAIM_ROLES);
+        return roles instanceof List<?> list ? (List<String>) list : List.of();
+    }
+
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
+    }
+
+    private void remember(String signature, String token, Claims claims, long now) {
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            return;
+        }
+        if (verifiedTokens.size() >= verifiedCacheSize) {
+            if (now >= nextSweep) {
+                nextSweep = now + SWEEP_INTERVAL_MS;
+                verifiedTokens.values().removeIf(entry -> entry.expiresAt <= now);
+            }
+            if (verifiedTokens.size() >= verifiedCacheSize) {
+                // Still full of live tokens: skip caching rather than grow past the bound
+                return;
+            }
+        }
+        verifiedTokens.put(signature, new VerifiedToken(token, claims, expiration.getTime()));
+    }
+
+    private static final class VerifiedToken {
+        private final String token;
+        private final Claims claims;
+        private final long expiresAt;
+
+        private VerifiedToken(String token, Claims claims, long expiresAt) {
+            this.token = token;
+            this.claims = claims;
+            this.expiresAt = expiresAt;
+        }
     }
 }
@@ -0,0 +1,97 @@
+package com.syntexa.api.security;
+
+import com.syntexa.api.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-client rate limiting, placed right after {@link JwtAuthenticationFilter} so that rejected
+ * requests get a 429 before any controller, database or password-hashing work. Auth routes are
+ * limited per client IP; other API routes per authenticated user (or IP when anonymous).
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public enum RouteGroup { AUTH, WRITE, READ }
+
+    private final TokenBucketRateLimiter limiter;
+    private final Map<RouteGroup, TokenBucketRateLimiter.Limit> limits;
+    private final Map<RouteGroup, Counter> rejected = new EnumMap<>(RouteGroup.class);
+
+    public RateLimitFilter(
+            TokenBucketRateLimiter limiter,
+            Map<RouteGroup, TokenBucketRateLimiter.Limit> limits,
+            MeterRegistry meterRegistry
+    ) {
+        this.limiter = limiter;
+        this.limits = new EnumMap<>(limits);
+        for (RouteGroup group : RouteGroup.values()) {
+            rejected.put(group, Counter.builder("http.server.requests.rate.limited")
+                    .tag("group", group.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        RouteGroup group = routeGroup(request);
+        TokenBucketRateLimiter.Limit limit = group != null ? limits.get(group) : null;
+        if (limit == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long waitNanos = limiter.tryAcquire(group.name() + ':' + clientKey(request, group), limit, System.nanoTime());
+        if (waitNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        rejected.get(group).increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write("Too many requests, please retry later.");
+    }
+
+    static RouteGroup routeGroup(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String method = request.getMethod();
+        if (!path.startsWith("/api/") || "OPTIONS".equals(method)) {
+            return null;
+        }
+        if (path.startsWith("/api/v1/auth/")) {
+            return RouteGroup.AUTH;
+        }
+        return "GET".equals(method) || "HEAD".equals(method) ? RouteGroup.READ : RouteGroup.WRITE;
+    }
+
+    private static String clientKey(HttpServletRequest request, RouteGroup group) {
+        if (group != RouteGroup.AUTH) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.getPrincipal() instanceof User user && user.getId() != null) {
+                return "user:" + user.getId();
+            }
+        }
+        // Behind a proxy, server.forward-headers-strategy makes this the original client address
+        return "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,143 @@
+package com.syntexa.api.security;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets keyed by client, kept as a single {@link AtomicLong} each and updated with
+ * compare-and-set (the GCRA form of a token bucket: the long is the bucket's "theoretical
+ * arrival time", so no refill bookkeeping or locking is needed).
+ * <p>
+ * Keys are spread over striped maps with a per-stripe cap. Buckets that have refilled and stayed
+ * idle are swept periodically; a full bucket behaves exactly like a missing one, so that never
+ * loosens a limit. A full stripe first sweeps its idle buckets (at most once a second, so a
+ * flood of new keys cannot turn every request into a scan) and otherwise evicts its oldest key,
+ * which only hands that one client a fresh bucket.
+ */
+public class TokenBucketRateLimiter {
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * A sustained rate plus the burst a client may spend at once.
+     */
+    public static final class Limit {
+        private final long emissionIntervalNanos;
+        private final long burstToleranceNanos;
+
+        public Limit(int requestsPerMinute, int burst) {
+            if (requestsPerMinute <= 0 || burst <= 0) {
+                throw new IllegalArgumentException("Rate limits must be positive");
+            }
+            this.emissionIntervalNanos = TimeUnit.MINUTES.toNanos(1) / requestsPerMinute;
+            this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+        }
+    }
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final int maxKeysPerStripe;
+    private final long idleNanos;
+    private final AtomicLong nextSweep;
+
+    public TokenBucketRateLimiter(int stripeCount, int maxKeys, long idleEvictionMillis, long now) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1) << 1);
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe(now);
+        }
+        this.stripeMask = size - 1;
+        this.maxKeysPerStripe = Math.max(1, maxKeys / size);
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleEvictionMillis);
+        this.nextSweep = new AtomicLong(now + idleNanos);
+    }
+
+    /**
+     * Takes one token from {@code key}'s bucket.
+     *
+     * @param now the current {@link System#nanoTime()}
+     * @return 0 if the request is admitted, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(String key, Limit limit, long now) {
+        sweepIfDue(now);
+        AtomicLong bucket = bucketFor(key, now);
+        while (true) {
+            long arrival = bucket.get();
+            long start = arrival - now > 0 ? arrival : now;
+            long wait = start - limit.burstToleranceNanos - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(arrival, start + limit.emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.buckets.size();
+        }
+        return size;
+    }
+
+    private AtomicLong bucketFor(String key, long now) {
+        int h = key.hashCode();
+        Stripe stripe = stripes[(h ^ (h >>> 16)) & stripeMask];
+        AtomicLong bucket = stripe.buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        // Only new keys take the stripe's lock
+        synchronized (stripe) {
+            bucket = stripe.buckets.get(key);
+            if (bucket != null) {
+                return bucket;
+            }
+            if (stripe.buckets.size() >= maxKeysPerStripe && now - stripe.nextEviction >= 0) {
+                stripe.nextEviction = now + SWEEP_INTERVAL_NANOS;
+                evictIdle(stripe, now);
+            }
+            while (stripe.buckets.size() >= maxKeysPerStripe) {
+                stripe.buckets.remove(stripe.order.poll());
+            }
+            AtomicLong created = new AtomicLong(now);
+            stripe.buckets.put(key, created);
+            stripe.order.add(key);
+            return created;
+        }
+    }
+
+    private void sweepIfDue(long now) {
+        long due = nextSweep.get();
+        if (now - due < 0 || !nextSweep.compareAndSet(due, now + idleNanos)) {
+            return;
+        }
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                evictIdle(stripe, now);
+            }
+        }
+    }
+
+    // A bucket whose arrival time is in the past is full again; past the idle window it can go
+    private void evictIdle(Stripe stripe, long now) {
+        if (stripe.buckets.values().removeIf(bucket -> now - bucket.get() > idleNanos)) {
+            stripe.order.removeIf(key -> !stripe.buckets.containsKey(key));
+        }
+    }
+
+    // One stripe's buckets; order (keys oldest first) and nextEviction are guarded by the stripe
+    private static final class Stripe {
+        private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final ArrayDeque<String> order = new ArrayDeque<>();
+        private long nextEviction;
+
+        private Stripe(long now) {
+            this.nextEviction = now;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.syntexa.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.syntexa.api.dto.ImportReport;
+import com.syntexa.api.dto.NoteBulkRecord;
+import com.syntexa.api.dto.ProblemCreateRequest;
+import com.syntexa.api.dto.ProblemSummaryDTO;
+import com.syntexa.api.model.Note;
+import com.syntexa.api.model.Problem;
+import com.syntexa.api.model.User;
+import com.syntexa.api.repository.NoteRepository;
+import com.syntexa.api.repository.ProblemRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Streaming NDJSON export and chunked import of problems and notes. Memory use is bounded by
+ * the chunk size on import and by the JDBC fetch size on export, not by the data volume.
+ */
+@Service
+public class BulkTransferService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkTransferService.class);
+    private static final int FLUSH_EVERY = 500;
+
+    private final ProblemRepository problemRepository;
+    private final NoteRepository noteRepository;
+    private final NoteSearchService noteSearchService;
+    private final ProblemCatalog problemCatalog;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate readOnlyTx;
+    private final TransactionTemplate writeTx;
+    private final int chunkSize;
+
+    public BulkTransferService(
+            ProblemRepository problemRepository,
+            NoteRepository noteRepository,
+            NoteSearchService noteSearchService,
+            ProblemCatalog problemCatalog,
+            ObjectMapper objectMapper,
+            Validator validator,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.bulk.chunk-size:500}") int chunkSize
+    ) {
+        this.problemRepository = problemRepository;
+        this.noteRepository = noteRepository;
+        this.noteSearchService = noteSearchService;
+        this.problemCatalog = problemCatalog;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.writeTx = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    // --- EXPORT ---
+
+    public void exportProblems(OutputStream out) {
+        readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<ProblemCreateRequest> rows = problemRepository.streamAllForExport()) {
+                writeNdjson(rows, out);
+            }
+        });
+    }
+
+    public void exportNotes(User user, OutputStream out) {
+        readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<NoteBulkRecord> rows = noteRepository.streamByAuthorIdForExport(user.getId())) {
+                writeNdjson(rows, out);
+            }
+        });
+    }
+
+    private <T> void writeNdjson(Stream<T> rows, OutputStream out) {
+        try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+            int written = 0;
+            for (T row : (Iterable<T>) rows::iterator) {
+                writer.write(row);
+                if (++written % FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // --- IMPORT ---
+
+    public ImportReport importProblems(InputStream in) throws IOException {
+        ImportReport report = new ImportReport();
+        readChunks(in, ProblemCreateRequest.class, report, chunk -> saveProblemChunk(chunk, report));
+        log.info("Problem import finished: {} imported, {} failed", report.getImported(), report.getFailed());
+        return report;
+    }
+
+    public ImportReport importNotes(InputStream in, User author) throws IOException {
+        ImportReport report = new ImportReport();
+        readChunks(in, NoteBulkRecord.class, report, chunk -> saveNoteChunk(chunk, author, report));
+        log.info("Note import for user {} finished: {} imported, {} failed", author.getId(), report.getImported(), report.getFailed());
+        return report;
+    }
+
+    private void saveProblemChunk(List<Line<ProblemCreateRequest>> chunk, ImportReport report) {
+        Set<String> titles = chunk.stream().map(l -> l.value.getTitle()).collect(Collectors.toSet());
+        Set<String> existing = problemRepository.findSummariesByTitleIn(titles).stream()
+                .map(ProblemSummaryDTO::getTitle)
+                .collect(Collectors.toSet());
+        Set<String> seen = new HashSet<>();
+        List<Long> lineNumbers = new ArrayList<>();
+        List<Problem> toSave = new ArrayList<>();
+        for (Line<ProblemCreateRequest> line : chunk) {
+            String title = line.value.getTitle();
+            if (existing.contains(title) || !seen.add(title)) {
+                report.recordFailure(line.number, "A problem with this title already exists!");
+                continue;
+            }
+            Problem problem = new Problem();
+            problem.setTitle(title);
+            problem.setDescription(line.value.getDescription());
+            lineNumbers.add(line.number);
+            toSave.add(problem);
+        }
+        commitChunk(lineNumbers, toSave, this::saveProblems, report, saved -> {});
+    }
+
+    private List<Problem> saveProblems(List<Problem> problems) {
+        List<Problem> saved = problemRepository.saveAll(problems);
+        saved.forEach(problemCatalog::updated);
+        return saved;
+    }
+
+    private void saveNoteChunk(List<Line<NoteBulkRecord>> chunk, User author, ImportReport report) {
+        Set<String> titles = chunk.stream().map(l -> l.value.getProblemTitle()).collect(Collectors.toSet());
+        Map<String, Long> problemIds = new HashMap<>();
+        problemRepository.findSummariesByTitleIn(titles).forEach(p -> problemIds.put(p.getTitle(), p.getId()));
+        List<Long> lineNumbers = new ArrayList<>();
+        List<Note> toSave = new ArrayList<>();
+        for (Line<NoteBulkRecord> line : chunk) {
+            Long problemId = problemIds.get(line.value.getProblemTitle());
+            if (problemId == null) {
+                report.recordFailure(line.number, "Problem not found with title: " + line.value.getProblemTitle());
+                continue;
+            }
+            Note note = new Note();
+            note.setApproachTitle(line.value.getApproachTitle());
+            note.setContent(line.value.getContent());
+            note.setLanguage(line.value.getLanguage());
+            note.setProblem(problemRepository.getReferenceById(problemId));
+            note.setAuthor(author);
+            lineNumbers.add(line.number);
+            toSave.add(note);
+        }
+        Map<Long, String> problemTitles = new HashMap<>();
+        problemIds.forEach((title, id) -> problemTitles.put(id, title));
+        commitChunk(lineNumbers, toSave, this::saveNotesWithStats, report, saved ->
+                saved.forEach(n -> noteSearchService.indexNote(n, problemTitles.get(n.getProblem().getId()))));
+    }
+
+    // Locks the chunk's problems (in id order) and counts the new notes into their statistics
+    private List<Note> saveNotesWithStats(List<Note> notes) {
+        Set<Long> problemIds = notes.stream().map(n -> n.getProblem().getId()).collect(Collectors.toSet());
+        Map<Long, Problem> problems = problemRepository.findAllByIdForUpdate(problemIds).stream()
+                .collect(Collectors.toMap(Problem::getId, Function.identity()));
+        for (Note note : notes) {
+            Problem problem = problems.get(note.getProblem().getId());
+            note.setProblem(problem);
+            problem.recordNoteAdded(note.getLanguage());
+        }
+        problems.values().forEach(problemCatalog::updated);
+        return noteRepository.saveAll(notes);
+    }
+
+    // One transaction per chunk: a failing chunk is rolled back and reported without affecting the others
+    private <E> void commitChunk(List<Long> lineNumbers, List<E> entities, Function<List<E>, List<E>> saver,
+                                 ImportReport report, Consumer<List<E>> afterCommit) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        try {
+            List<E> saved = writeTx.execute(status -> saver.apply(entities));
+            report.recordImported(saved.size());
+            afterCommit.accept(saved);
+        } catch (RuntimeException e) {
+            String reason = "Chunk was rolled back: " + rootMessage(e);
+            log.warn("Import chunk for lines {}-{} failed: {}", lineNumbers.get(0), lineNumbers.get(lineNumbers.size() - 1), e.getMessage());
+            lineNumbers.forEach(number -> report.recordFailure(number, reason));
+        }
+    }
+
+    private <T> void readChunks(InputStream in, Class<T> type, ImportReport report,
+                                Consumer<List<Line<T>>> chunkHandler) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(type);
+        BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        List<Line<T>> chunk = new ArrayList<>(chunkSize);
+        String text;
+        long number = 0;
+        while ((text = lines.readLine()) != null) {
+            number++;
+            if (text.isBlank()) {
+                continue;
+            }
+            T value;
+            try {
+                value = reader.readValue(text);
+            } catch (JsonProcessingException e) {
+                report.recordFailure(number, "Malformed JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            // Same constraints as the single-entity endpoints (@NotBlank, @Size, ...)
+            Set<ConstraintViolation<T>> violations = validator.validate(value);
+            if (!violations.isEmpty()) {
+                report.recordFailure(number, violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                continue;
+            }
+            chunk.add(new Line<>(number, value));
+            if (chunk.size() == chunkSize) {
+                chunkHandler.accept(chunk);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunkHandler.accept(chunk);
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    private static final class Line<T> {
+        private final long number;
+        private final T value;
+
+        private Line(long number, T value) {
+            this.number = number;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.syntexa.api.service;
+
+import com.syntexa.api.dto.NoteDTO;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Incrementally maintained inverted index over note titles, problem titles and note content.
+ * Tokens are split the way code is written (camelCase, snake_case, digits) so a search for
+ * "search" finds "binarySearch". Ranking is BM25 over field-weighted term frequencies.
+ * Postings are partitioned by author, so a search costs what the author's own notes cost.
+ * Text is tokenized before the write lock is taken; the lock only covers swapping postings.
+ * Indexed summaries are never modified once indexed, so a search can hand them out after
+ * releasing its lock.
+ */
+public class NoteSearchIndex {
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int PROBLEM_TITLE_WEIGHT = 2;
+    private static final int CONTENT_WEIGHT = 1;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // authorId -> term -> (noteId -> weighted term frequency): a search only walks its author's notes
+    private final Map<Long, Map<String, Map<Long, Integer>>> postings = new HashMap<>();
+    // term -> number of notes (of all authors) containing it; IDF is computed over the whole index
+    private final Map<String, Integer> documentFrequency = new HashMap<>();
+    private final Map<Long, IndexedNote> notes = new HashMap<>();
+    private long totalLength;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Adds or replaces a note. {@code summary} is what search results return, so it should not carry content.
+     */
+    public void put(Long authorId, NoteDTO summary, String content) {
+        Map<String, Integer> terms = new HashMap<>();
+        addTerms(terms, summary.getApproachTitle(), TITLE_WEIGHT);
+        addTerms(terms, summary.getProblemTitle(), PROBLEM_TITLE_WEIGHT);
+        addTerms(terms, content, CONTENT_WEIGHT);
+        IndexedNote entry = new IndexedNote(authorId, summary, terms);
+
+        lock.writeLock().lock();
+        try {
+            putLocked(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-indexes an edited note under its existing author, problem and share token. Returns false
+     * (and changes nothing) when the note is not in the index.
+     */
+    public boolean replace(Long noteId, String approachTitle, String language, String content) {
+        Map<String, Integer> editedTerms = new HashMap<>();
+        addTerms(editedTerms, approachTitle, TITLE_WEIGHT);
+        addTerms(editedTerms, content, CONTENT_WEIGHT);
+        while (true) {
+            IndexedNote current = get(noteId);
+            if (current == null) {
+                return false;
+            }
+            Map<String, Integer> terms = new HashMap<>(editedTerms);
+            addTerms(terms, current.summary.getProblemTitle(), PROBLEM_TITLE_WEIGHT);
+            NoteDTO summary = new NoteDTO(noteId, approachTitle, language, current.summary.getProblemId(),
+                    current.summary.getProblemTitle(), current.summary.getShareToken());
+            IndexedNote entry = new IndexedNote(current.authorId, summary, terms);
+
+            lock.writeLock().lock();
+            try {
+                // Built from current: if the note changed meanwhile (e.g. got a share token), start over
+                if (notes.get(noteId) == current) {
+                    putLocked(entry);
+                    return true;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // Swaps in a copy of the summary with the new token; the terms are unchanged
+    public void updateShareToken(Long noteId, String shareToken) {
+        lock.writeLock().lock();
+        try {
+            IndexedNote entry = notes.get(noteId);
+            if (entry != null) {
+                NoteDTO summary = new NoteDTO(noteId, entry.summary.getApproachTitle(), entry.summary.getLanguage(),
+                        entry.summary.getProblemId(), entry.summary.getProblemTitle(), shareToken);
+                notes.put(noteId, new IndexedNote(entry.authorId, summary, entry.terms));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long noteId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(noteId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documentFrequency.clear();
+            notes.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return notes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the top {@code limit} notes of {@code authorId} matching any query term, best first
+     * (ties by ascending id). Only the author's own postings are scored, under the read lock;
+     * ranking happens after it is released.
+     */
+    public List<NoteDTO> search(String query, Long authorId, int limit) {
+        Set<String> queryTerms = tokenize(query).keySet();
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Map<Long, Double> scores = new HashMap<>();
+        Map<Long, NoteDTO> summaries = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            Map<String, Map<Long, Integer>> authorPostings = postings.get(authorId);
+            if (authorPostings == null) {
+                return List.of();
+            }
+            int docCount = notes.size();
+            double avgLength = docCount == 0 ? 1.0 : Math.max(1.0, (double) totalLength / docCount);
+            for (String term : queryTerms) {
+                Map<Long, Integer> posting = authorPostings.get(term);
+                if (posting == null) {
+                    continue;
+                }
+                int df = documentFrequency.getOrDefault(term, posting.size());
+                double idf = Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+                posting.forEach((noteId, tf) -> {
+                    IndexedNote note = notes.get(noteId);
+                    double norm = K1 * (1 - B + B * note.length / avgLength);
+                    scores.merge(noteId, idf * tf * (K1 + 1) / (tf + norm), Double::sum);
+                    summaries.putIfAbsent(noteId, note.summary);
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Comparator<Map.Entry<Long, Double>> worstFirst = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder()));
+        PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(worstFirst);
+        for (Map.Entry<Long, Double> scored : scores.entrySet()) {
+            top.offer(scored);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(top);
+        ranked.sort(worstFirst.reversed());
+        List<NoteDTO> results = new ArrayList<>(ranked.size());
+        ranked.forEach(e -> results.add(summaries.get(e.getKey())));
+        return results;
+    }
+
+    private IndexedNote get(Long noteId) {
+        lock.readLock().lock();
+        try {
+            return notes.get(noteId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void putLocked(IndexedNote entry) {
+        Long noteId = entry.summary.getId();
+        removeLocked(noteId);
+        notes.put(noteId, entry);
+        totalLength += entry.length;
+        Map<String, Map<Long, Integer>> authorPostings = postings.computeIfAbsent(entry.authorId, a -> new HashMap<>());
+        entry.terms.forEach((term, tf) -> {
+            authorPostings.computeIfAbsent(term, t -> new HashMap<>()).put(noteId, tf);
+            documentFrequency.merge(term, 1, Integer::sum);
+        });
+    }
+
+    private void removeLocked(Long noteId) {
+        IndexedNote previous = notes.remove(noteId);
+        if (previous == null) {
+            return;
+        }
+        totalLength -= previous.length;
+        Map<String, Map<Long, Integer>> authorPostings = postings.get(previous.authorId);
+        for (String term : previous.terms.keySet()) {
+            documentFrequency.computeIfPresent(term, (t, df) -> df > 1 ? df - 1 : null);
+            Map<Long, Integer> posting = authorPostings == null ? null : authorPostings.get(term);
+            if (posting != null) {
+                posting.remove(noteId);
+                if (posting.isEmpty()) {
+                    authorPostings.remove(term);
+                }
+            }
+        }
+        if (authorPostings != null && authorPostings.isEmpty()) {
+            postings.remove(previous.authorId);
+        }
+    }
+
+    private static void addTerms(Map<String, Integer> terms, String text, int weight) {
+        tokenize(text).forEach((term, count) -> terms.merge(term, count * weight, Integer::sum));
+    }
+
+    /**
+     * Splits text into lower-cased terms with counts. Identifiers are indexed whole and by their
+     * camelCase / snake_case / letter-digit parts, e.g. "maxSubArray_v2" yields
+     * "maxsubarray_v2", "max", "sub", "array", "v", "2".
+     */
+    static Map<String, Integer> tokenize(String text) {
+        Map<String, Integer> counts = new HashMap<>();
+        if (text == null || text.isEmpty()) {
+            return counts;
+        }
+        for (String word : text.split("[^\\p{L}\\p{N}_]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            Set<String> terms = new LinkedHashSet<>();
+            terms.add(word.toLowerCase(Locale.ROOT));
+            for (String part : word.split("_+|(?<=\\p{Ll})(?=\\p{Lu})|(?<=\\p{Lu})(?=\\p{Lu}\\p{Ll})|(?<=\\p{L})(?=\\p{N})|(?<=\\p{N})(?=\\p{L})")) {
+                if (!part.isEmpty()) {
+                    terms.add(part.toLowerCase(Locale.ROOT));
+                }
+            }
+            for (String term : terms) {
+                if (term.length() > 1 || Character.isDigit(term.charAt(0))) {
+                    counts.merge(term, 1, Integer::sum);
+                }
+            }
+        }
+        return counts;
+    }
+
+    private static final class IndexedNote {
+        private final Long authorId;
+        private final NoteDTO summary;
+        private final Map<String, Integer> terms;
+        private final int length;
+
+        private IndexedNote(Long authorId, NoteDTO summary, Map<String, Integer> terms) {
+            this.authorId = authorId;
+            this.summary = summary;
+            this.terms = terms;
+            this.length = terms.values().stream().mapToInt(Integer::intValue).sum();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.syntexa.api.service;
+
+import com.syntexa.api.dto.NoteDTO;
+import com.syntexa.api.model.Note;
+import com.syntexa.api.model.User;
+import com.syntexa.api.repository.NoteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Keeps {@link NoteSearchIndex} in step with the notes table. The index is rebuilt from the
+ * database once all beans exist (before the web server accepts requests) and is then updated
+ * by {@link NoteService} on every create, update and delete.
+ */
+@Service
+public class NoteSearchService implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(NoteSearchService.class);
+    private static final int REBUILD_BATCH_SIZE = 500;
+    public static final int MAX_RESULTS = 100;
+
+    private final NoteRepository noteRepository;
+    private final NoteSearchIndex index = new NoteSearchIndex();
+    private final boolean rebuildOnStartup;
+
+    public NoteSearchService(
+            NoteRepository noteRepository,
+            @Value("${app.search.rebuild-on-startup:true}") boolean rebuildOnStartup
+    ) {
+        this.noteRepository = noteRepository;
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (rebuildOnStartup) {
+            rebuild();
+        }
+    }
+
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        index.clear();
+        long afterId = 0L;
+        List<Note> batch;
+        do {
+            batch = noteRepository.findBatchWithProblemAfterId(afterId, PageRequest.ofSize(REBUILD_BATCH_SIZE));
+            for (Note note : batch) {
+                indexNote(note, note.getProblem().getTitle());
+                afterId = note.getId();
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+        log.info("Rebuilt note search index with {} notes in {} ms", index.size(), System.currentTimeMillis() - started);
+    }
+
+    public List<NoteDTO> search(String query, User user, Integer limit) {
+        int max = limit == null ? 20 : Math.max(1, Math.min(limit, MAX_RESULTS));
+        return index.search(query, user.getId(), max);
+    }
+
+    // problemTitle is passed in because callers often hold the note with an uninitialized problem proxy
+    public void indexNote(Note note, String problemTitle) {
+        NoteDTO summary = new NoteDTO(
+                note.getId(),
+                note.getApproachTitle(),
+                note.getLanguage(),
+                note.getProblem().getId(),
+                problemTitle,
+                note.getShareToken()
+        );
+        index.put(note.getAuthor().getId(), summary, note.getContent());
+    }
+
+    // For edits made without loading the note; notes missing from the index stay missing until the next rebuild
+    public void reindexEdited(Long noteId, String approachTitle, String language, String content) {
+        index.replace(noteId, approachTitle, language, content);
+    }
+
+    public void updateShareToken(Long noteId, String shareToken) {
+        index.updateShareToken(noteId, shareToken);
+    }
+
+    public void removeNote(Long noteId) {
+        index.remove(noteId);
+    }
+}
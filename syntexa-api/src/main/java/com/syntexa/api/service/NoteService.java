@@ -1,30 +1,82 @@
 package com.syntexa.api.service;
 
+import com.syntexa.api.config.ReadWriteRoutingDataSource;
+import com.syntexa.api.dto.CursorPage;
+import com.syntexa.api.dto.NoteBodyDTO;
+import com.syntexa.api.dto.NoteChangeDTO;
+import com.syntexa.api.dto.NoteChangeRow;
+import com.syntexa.api.dto.NoteChangesDTO;
 import com.syntexa.api.dto.NoteCreateRequest;
 import com.syntexa.api.dto.NoteDTO;
+import com.syntexa.api.dto.NoteWriteState;
+import com.syntexa.api.dto.SharedNoteDTO;
+import com.syntexa.api.dto.StreamedCursorPage;
+import com.syntexa.api.model.ChangeStamps;
 import com.syntexa.api.model.Note;
+import com.syntexa.api.model.NoteContent;
 import com.syntexa.api.model.Problem;
 import com.syntexa.api.model.User;
 import com.syntexa.api.repository.NoteRepository;
 import com.syntexa.api.repository.ProblemRepository;
+import com.syntexa.api.service.SharedNoteCache.RenderedNote;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 public class NoteService {
 
     private final NoteRepository noteRepository;
     private final ProblemRepository problemRepository;
+    private final SharedNoteCache sharedNoteCache;
+    private final ObjectMapper objectMapper;
+    private final NoteSearchService noteSearchService;
+    private final ProblemCatalog problemCatalog;
+    private final TransactionTemplate readOnlyTx;
+    private final long settleWindowMicros;
 
-    public NoteService(NoteRepository noteRepository, ProblemRepository problemRepository) {
+    public NoteService(NoteRepository noteRepository, ProblemRepository problemRepository,
+                       SharedNoteCache sharedNoteCache, ObjectMapper objectMapper,
+                       NoteSearchService noteSearchService, ProblemCatalog problemCatalog,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${app.notes.sync.settle-window-ms:10000}") long settleWindowMs) {
         this.noteRepository = noteRepository;
         this.problemRepository = problemRepository;
+        this.sharedNoteCache = sharedNoteCache;
+        this.objectMapper = objectMapper;
+        this.noteSearchService = noteSearchService;
+        this.problemCatalog = problemCatalog;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.settleWindowMicros = settleWindowMs * 1_000L;
     }
 
+    /**
+     * Note writes lock the problem row ({@code SELECT ... FOR UPDATE}) and update its note
+     * statistics in the same transaction. Search indexing, cache invalidation and publishing the
+     * new statistics to the problem catalog run once the transaction has committed.
+     */
+    @Transactional
     public Note createNote(Long problemId, NoteCreateRequest request, User author) {
-        Problem problem = problemRepository.findById(problemId)
+        Problem problem = problemRepository.findByIdForUpdate(problemId)
                 .orElseThrow(() -> new RuntimeException("Error: Problem not found with id: " + problemId));
 
         Note newNote = new Note();
@@ -34,81 +86,281 @@ public class NoteService {
         newNote.setProblem(problem);
         newNote.setAuthor(author);
 
-        return noteRepository.save(newNote);
+        Note saved = noteRepository.save(newNote);
+        problem.recordNoteAdded(saved.getLanguage());
+        problemCatalog.updated(problem);
+        afterCommit(() -> noteSearchService.indexNote(saved, problem.getTitle()));
+        return saved;
     }
 
-    public Note updateNote(Long problemId, Long noteId, NoteCreateRequest request, User user) {
-        Problem problem = problemRepository.findById(problemId)
+    /**
+     * Creates all notes for one problem in a single transaction. Ids come from a pooled sequence,
+     * so Hibernate sends the inserts as JDBC batches ({@code hibernate.jdbc.batch_size}).
+     * The notes are indexed for search once the transaction has committed.
+     */
+    @Transactional
+    public List<NoteDTO> createNotes(Long problemId, List<NoteCreateRequest> requests, User author) {
+        Problem problem = problemRepository.findByIdForUpdate(problemId)
                 .orElseThrow(() -> new IllegalArgumentException("Problem not found with id: " + problemId));
-        Note note = noteRepository.findById(noteId)
-                .orElseThrow(() -> new IllegalArgumentException("Note not found with id: " + noteId));
-        if (!note.getProblem().getId().equals(problem.getId())) {
-            throw new IllegalArgumentException("Note does not belong to the specified problem.");
+
+        List<Note> notes = new ArrayList<>(requests.size());
+        for (NoteCreateRequest request : requests) {
+            Note note = new Note();
+            note.setApproachTitle(request.getApproachTitle());
+            note.setContent(request.getContent());
+            note.setLanguage(request.getLanguage());
+            note.setProblem(problem);
+            note.setAuthor(author);
+            notes.add(note);
+            problem.recordNoteAdded(note.getLanguage());
         }
-        if (!note.getAuthor().getId().equals(user.getId())) {
-            throw new AccessDeniedException("You are not the author of this note.");
+        List<Note> saved = noteRepository.saveAll(notes);
+        problemCatalog.updated(problem);
+
+        afterCommit(() -> saved.forEach(note -> noteSearchService.indexNote(note, problem.getTitle())));
+        return saved.stream()
+                .map(note -> new NoteDTO(note.getId(), note.getApproachTitle(), note.getContent(), note.getLanguage(),
+                        problem.getId(), problem.getTitle(), note.getShareToken()))
+                .toList();
+    }
+
+    /**
+     * Edits a note with one conditional UPDATE that checks problem, author and (with If-Match)
+     * version itself. If the language moves to another statistics bucket, the UPDATE matches no
+     * row, and the edit is retried under the problem lock, pinned to the version just read so
+     * the old language is known. Returns the new version, or null when it was not read (no If-Match).
+     */
+    @Transactional
+    public Long updateNote(Long problemId, Long noteId, NoteCreateRequest request, User user, Long expectedVersion) {
+        NoteContent content = NoteContent.ofText(request.getContent());
+        String languageKey = Problem.languageKey(request.getLanguage());
+        int updated = noteRepository.updateIfOwned(noteId, problemId, user.getId(), expectedVersion, languageKey,
+                request.getApproachTitle(), content, request.getLanguage(), Instant.now(), ChangeStamps.next());
+        Long newVersion = expectedVersion != null ? expectedVersion + 1 : null;
+        if (updated == 0) {
+            NoteWriteState state = checkWritable(noteId, problemId, user, expectedVersion);
+            if (Problem.languageKey(state.getLanguage()).equals(languageKey)) {
+                throw concurrentWrite(noteId);
+            }
+            Problem problem = problemRepository.findByIdForUpdate(problemId)
+                    .orElseThrow(() -> new IllegalArgumentException("Problem not found with id: " + problemId));
+            if (noteRepository.updateIfOwned(noteId, problemId, user.getId(), state.getVersion(),
+                    Problem.languageKey(state.getLanguage()), request.getApproachTitle(), content,
+                    request.getLanguage(), Instant.now(), ChangeStamps.next()) == 0) {
+                throw concurrentWrite(noteId);
+            }
+            problem.recordNoteLanguageChanged(state.getLanguage(), request.getLanguage());
+            problemCatalog.updated(problem);
+            newVersion = state.getVersion() + 1;
         }
-        note.setApproachTitle(request.getApproachTitle());
-        note.setContent(request.getContent());
-        note.setLanguage(request.getLanguage());
-        return noteRepository.save(note);
+        afterCommit(() -> {
+            sharedNoteCache.invalidateNote(noteId);
+            noteSearchService.reindexEdited(noteId, request.getApproachTitle(), request.getLanguage(), request.getContent());
+        });
+        return newVersion;
     }
 
-    public void deleteNote(Long problemId, Long noteId, User user) {
-        Problem problem = problemRepository.findById(problemId)
-                .orElseThrow(() -> new IllegalArgumentException("Problem not found with id: " + problemId));
-        Note note = noteRepository.findById(noteId)
+    /**
+     * Deletes (leaving a tombstone for the change feed) with a conditional write pinned to the version just read; the read supplies the
+     * language whose statistics bucket the note leaves. Starter notes cannot be deleted.
+     */
+    @Transactional
+    public void deleteNote(Long problemId, Long noteId, User user, Long expectedVersion) {
+        NoteWriteState state = checkWritable(noteId, problemId, user, expectedVersion);
+        if (noteRepository.deleteIfOwned(noteId, problemId, user.getId(), state.getVersion(),
+                NoteContent.ofText(""), Instant.now(), ChangeStamps.next()) == 0) {
+            if (isStarter(state.getShareToken())) {
+                throw new AccessDeniedException("The starter note cannot be deleted. You can edit it, but not delete it.");
+            }
+            throw concurrentWrite(noteId);
+        }
+        problemRepository.findByIdForUpdate(problemId)
+                .ifPresent(problem -> {
+                    problem.recordNoteRemoved(state.getLanguage());
+                    problemCatalog.updated(problem);
+                });
+        afterCommit(() -> {
+            sharedNoteCache.invalidateNote(noteId);
+            noteSearchService.removeNote(noteId);
+        });
+    }
+
+    // Reports a failed ownership, problem or version check the way the conditional writes would
+    private NoteWriteState checkWritable(Long noteId, Long problemId, User user, Long expectedVersion) {
+        NoteWriteState state = noteRepository.findWriteState(noteId)
                 .orElseThrow(() -> new IllegalArgumentException("Note not found with id: " + noteId));
-        if (!note.getProblem().getId().equals(problem.getId())) {
+        if (problemId != null && !state.getProblemId().equals(problemId)) {
             throw new IllegalArgumentException("Note does not belong to the specified problem.");
         }
-        if (!note.getAuthor().getId().equals(user.getId())) {
+        if (!state.getAuthorId().equals(user.getId())) {
             throw new AccessDeniedException("You are not the author of this note.");
         }
-        // Prevent deletion of the professional starter note
-        if ("starter-note".equals(note.getShareToken())) {
-            throw new AccessDeniedException("The starter note cannot be deleted. You can edit it, but not delete it.");
+        if (expectedVersion != null && state.getVersion() != expectedVersion) {
+            throw new OptimisticLockingFailureException("Note " + noteId + " is at version " + state.getVersion()
+                    + ", not " + expectedVersion + ".");
+        }
+        return state;
+    }
+
+    private static OptimisticLockingFailureException concurrentWrite(Long noteId) {
+        return new OptimisticLockingFailureException("Note " + noteId + " was changed by another request.");
+    }
+
+    private static boolean isStarter(String shareToken) {
+        return shareToken != null && shareToken.startsWith(OnboardingService.STARTER_TOKEN_PREFIX);
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    /**
+     * Returns one keyset page of the user's notes, built by a single joined projection query that
+     * runs when the page is written to the response. Note bodies are only read from the database
+     * when {@code includeContent} is set.
+     */
+    public StreamedCursorPage<NoteDTO> getNotesByAuthor(User user, String cursor, Integer limit, boolean includeContent) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long afterId = CursorPage.decodeIdCursor(cursor);
+        Long authorId = user.getId();
+        PageRequest window = PageRequest.ofSize(pageSize + 1);
+        return new StreamedCursorPage<>(rows -> readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<NoteDTO> page = includeContent
+                    ? noteRepository.streamDetailsByAuthorId(authorId, afterId, window)
+                    : noteRepository.streamSummariesByAuthorId(authorId, afterId, window)) {
+                page.forEach(rows);
+            }
+        }), pageSize, note -> String.valueOf(note.getId()));
+    }
+
+    /**
+     * The user's notes created, changed or deleted after {@code since}, oldest change first, read
+     * with one keyset query on (author, change stamp, id). Stamps are not assigned in commit order,
+     * so the returned cursor only moves past changes older than the settle window; newer ones are
+     * delivered now and again on the next call, so a change that commits late is never skipped.
+     * A full page that reaches into the window is cut back to its settled changes with
+     * {@code hasMore} set, so the next call starts at the unsettled ones. A full page with no
+     * settled changes at all leaves the cursor in place with {@code hasMore} false: the changes
+     * beyond it are only delivered once the page's first change has settled.
+     */
+    public NoteChangesDTO getNoteChanges(User user, String since, Integer limit, boolean includeContent) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long[] position = decodeChangeCursor(since);
+        List<NoteChangeRow> rows = noteRepository.findChangesByAuthorId(
+                user.getId(), position[0], position[1], includeContent, pageSize + 1);
+
+        long settledBefore = ChangeStamps.currentMicros() - settleWindowMicros;
+        List<NoteChangeRow> page = rows.subList(0, Math.min(rows.size(), pageSize));
+        // Rows are in stamp order, so the settled ones are a prefix
+        int settledCount = 0;
+        while (settledCount < page.size() && page.get(settledCount).getChangeStamp() < settledBefore) {
+            settledCount++;
+        }
+        boolean full = rows.size() > pageSize;
+        if (full && settledCount > 0) {
+            page = page.subList(0, settledCount);
+        }
+
+        List<NoteChangeDTO> changes = new ArrayList<>(page.size());
+        for (NoteChangeRow row : page) {
+            changes.add(Boolean.TRUE.equals(row.getDeleted())
+                    ? NoteChangeDTO.tombstone(row.getId(), row.getVersion())
+                    : new NoteChangeDTO(row.getId(), false, row.getVersion() != null ? row.getVersion() : 0L,
+                            row.getApproachTitle(),
+                            row.getContent() != null ? NoteContent.ofStored(row.getContent()).getText() : null,
+                            row.getLanguage(), row.getProblemId(), row.getProblemTitle(), row.getShareToken()));
         }
-        noteRepository.delete(note);
+        String cursor;
+        if (settledCount > 0) {
+            NoteChangeRow last = page.get(settledCount - 1);
+            cursor = encodeChangeCursor(last.getChangeStamp(), last.getId());
+        } else {
+            cursor = since == null || since.isEmpty() ? encodeChangeCursor(position[0], position[1]) : since;
+        }
+        return new NoteChangesDTO(changes, cursor, full && settledCount > 0);
     }
 
-    public List<NoteDTO> getNotesByAuthor(User user) {
-        List<Note> notes = noteRepository.findAllByAuthor(user);
-        List<NoteDTO> dtos = new java.util.ArrayList<>();
-        for (Note n : notes) {
-            dtos.add(new NoteDTO(
-                n.getId(),
-                n.getApproachTitle(),
-                n.getContent(),
-                n.getLanguage(),
-                n.getProblem() != null ? n.getProblem().getId() : null,
-                n.getProblem() != null ? n.getProblem().getTitle() : null,                n.getShareToken(),
-                n.getShareToken() != null && n.getShareToken().startsWith("starter-note-")
-            ));
+    // Change feed position (change stamp, note id); before the first change when absent
+    private static long[] decodeChangeCursor(String cursor) {
+        String key = CursorPage.decodeCursor(cursor);
+        if (key == null) {
+            return new long[] {-1L, 0L};
+        }
+        int separator = key.indexOf(':');
+        try {
+            return new long[] {Long.parseLong(key.substring(0, separator)), Long.parseLong(key.substring(separator + 1))};
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
         }
-        return dtos;
     }
 
-    // Generate or return existing shareToken for a note (only by owner)
-    public String generateShareToken(Long noteId, User user) {
-        Note note = noteRepository.findById(noteId)
+    private static String encodeChangeCursor(long changeStamp, long noteId) {
+        return CursorPage.encodeCursor(changeStamp + ":" + noteId);
+    }
+
+    // A note's body on its own, for the author only; read with one query and without the note's metadata
+    public NoteBodyDTO getNoteBody(Long noteId, User user) {
+        NoteBodyDTO body = noteRepository.findBody(noteId)
                 .orElseThrow(() -> new IllegalArgumentException("Note not found with id: " + noteId));
-        if (!note.getAuthor().getId().equals(user.getId())) {
+        if (!body.getAuthorId().equals(user.getId())) {
             throw new AccessDeniedException("You are not the author of this note.");
         }
-        if (note.getShareToken() == null || note.getShareToken().isEmpty()) {
-            // Generate a random, unguessable token
-            String token = java.util.UUID.randomUUID().toString().replace("-", "");
-            note.setShareToken(token);
-            noteRepository.save(note);
+        return body;
+    }
+
+    // Generate or return existing shareToken for a note (only by owner). A single conditional
+    // UPDATE sets it; the note is only read when that matched no row
+    @Transactional
+    public String generateShareToken(Long noteId, User user) {
+        // Generate a random, unguessable token
+        String token = java.util.UUID.randomUUID().toString().replace("-", "");
+        if (noteRepository.setShareTokenIfAbsent(noteId, user.getId(), token, ChangeStamps.next()) == 1) {
+            afterCommit(() -> noteSearchService.updateShareToken(noteId, token));
+            return token;
+        }
+        return checkWritable(noteId, null, user, null).getShareToken();
+    }
+
+    // Get a shared note's rendered JSON by shareToken (public, read-only), served from cache when possible
+    public RenderedNote getSharedNoteView(String shareToken) {
+        RenderedNote cached = sharedNoteCache.get(shareToken);
+        if (cached != null) {
+            return cached;
         }
-        return note.getShareToken();
+        long generation = sharedNoteCache.currentGeneration();
+        // Cached for every viewer until the next write, so never filled from a lagging replica
+        SharedNoteDTO view = ReadWriteRoutingDataSource.readFromPrimary(() -> noteRepository.findSharedView(shareToken))
+                .orElseThrow(() -> new IllegalArgumentException("Note not found for this share link."));
+        RenderedNote rendered = render(view);
+        sharedNoteCache.put(shareToken, rendered, generation);
+        return rendered;
     }
 
-    // Get a note by shareToken (public, read-only)
-    public Note getNoteByShareToken(String shareToken) {
-        Note note = noteRepository.findByShareToken(shareToken);
-        if (note == null) throw new IllegalArgumentException("Note not found for this share link.");
-        return note;
+    private RenderedNote render(SharedNoteDTO view) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(view);
+            long lastModified = view.getUpdatedAt() != null ? view.getUpdatedAt().toEpochMilli() : System.currentTimeMillis();
+            return new RenderedNote(view.getId(), body, etagOf(body), lastModified);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not render shared note", e);
+        }
+    }
+
+    // Strong validator: derived from the exact bytes that are served
+    private static String etagOf(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
-}
\ No newline at end of file
+}
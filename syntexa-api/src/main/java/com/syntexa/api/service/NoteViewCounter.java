@@ -0,0 +1,184 @@
+package com.syntexa.api.service;
+
+import com.syntexa.api.dto.NoteViewsDTO;
+import com.syntexa.api.model.User;
+import com.syntexa.api.repository.NoteViewCountRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind view counts for shared notes. A view only increments an in-memory striped counter
+ * (no SQL and no lock on the read path); a scheduled flush adds the counts gathered since the last
+ * flush to note_view_counts with one batched upsert, which is safe when several instances write
+ * the first count of a note at once. The last flush runs on shutdown.
+ * <p>
+ * Memory is bounded by the number of notes tracked at once: notes with no views since the last
+ * flush are retired and dropped from the map, and views of new notes are not counted while the
+ * map is full. A view that lands on a retired counter is taken back and counted again on the
+ * note's current one.
+ */
+@Service
+public class NoteViewCounter implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(NoteViewCounter.class);
+
+    private final ConcurrentHashMap<Long, PendingViews> pending = new ConcurrentHashMap<>();
+    // Retired by the last flush; views counted on them before they were retired are carried over
+    private List<Map.Entry<Long, PendingViews>> retired = new ArrayList<>();
+    private final LongAdder dropped = new LongAdder();
+    private final NoteViewCountRepository viewCountRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate writeTx;
+    private final int maxTrackedNotes;
+    private String upsertSql;
+
+    public NoteViewCounter(NoteViewCountRepository viewCountRepository, JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.shared-notes.views.max-tracked-notes:100000}") int maxTrackedNotes) {
+        this.viewCountRepository = viewCountRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.writeTx = new TransactionTemplate(transactionManager);
+        this.maxTrackedNotes = maxTrackedNotes;
+    }
+
+    public void record(Long noteId) {
+        while (true) {
+            PendingViews views = pending.get(noteId);
+            if (views == null) {
+                if (pending.size() >= maxTrackedNotes) {
+                    dropped.increment();
+                    return;
+                }
+                views = pending.computeIfAbsent(noteId, id -> new PendingViews());
+            }
+            views.count.increment();
+            // flush() sets retired before it reads the count, so a view it may have missed sees it here
+            if (!views.retired) {
+                return;
+            }
+            views.count.decrement();
+        }
+    }
+
+    // Views not yet flushed, as seen by this instance
+    public long pendingViews(Long noteId) {
+        PendingViews views = pending.get(noteId);
+        return views != null ? views.unflushed() : 0L;
+    }
+
+    // Persisted plus pending views of one of the user's notes, read with one query
+    public NoteViewsDTO getViews(Long noteId, User user) {
+        NoteViewsDTO views = viewCountRepository.findViews(noteId)
+                .orElseThrow(() -> new IllegalArgumentException("Note not found with id: " + noteId));
+        if (!views.getAuthorId().equals(user.getId())) {
+            throw new AccessDeniedException("You are not the author of this note.");
+        }
+        views.setViews(views.getViews() + pendingViews(noteId));
+        return views;
+    }
+
+    /**
+     * Writes the views counted since the last flush. Counters stay cumulative and each flush
+     * writes the difference to what was already written, so increments racing with a flush are
+     * picked up by the next one, and notes with no new views are retired. If the write fails, the
+     * same views are still pending and are retried next time.
+     */
+    @Scheduled(fixedDelayString = "${app.shared-notes.views.flush-interval-ms:10000}")
+    public synchronized void flush() {
+        // Views counted on a counter just before it was retired: by now any view that saw the
+        // retirement has been taken back, so what is left belongs to the note
+        for (Map.Entry<Long, PendingViews> entry : retired) {
+            long late = entry.getValue().unflushed();
+            if (late > 0) {
+                pending.computeIfAbsent(entry.getKey(), id -> new PendingViews()).count.add(late);
+            }
+        }
+        retired = new ArrayList<>();
+        Map<Long, Long> deltas = new HashMap<>();
+        pending.forEach((noteId, views) -> {
+            long delta = views.unflushed();
+            if (delta > 0) {
+                deltas.put(noteId, delta);
+            } else {
+                views.retired = true;
+                pending.remove(noteId, views);
+                retired.add(Map.entry(noteId, views));
+            }
+        });
+        long droppedViews = dropped.sumThenReset();
+        if (droppedViews > 0) {
+            log.warn("{} shared-note views were not counted: {} notes already tracked", droppedViews, maxTrackedNotes);
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            writeTx.executeWithoutResult(status -> write(deltas));
+            deltas.forEach((noteId, delta) -> {
+                PendingViews views = pending.get(noteId);
+                if (views != null) {
+                    views.flushed += delta;
+                }
+            });
+        } catch (Exception e) {
+            // Not marked as flushed, so the same deltas are written by the next flush
+            log.warn("Could not write {} shared-note view counts, retrying on the next flush: {}",
+                    deltas.size(), e.getMessage());
+        }
+    }
+
+    private void write(Map<Long, Long> deltas) {
+        List<Object[]> upserts = new ArrayList<>(deltas.size());
+        deltas.forEach((noteId, delta) -> upserts.add(new Object[] {noteId, delta}));
+        jdbcTemplate.batchUpdate(upsertSql(), upserts);
+    }
+
+    // ON CONFLICT on PostgreSQL, where it is atomic against concurrent inserts; standard MERGE elsewhere
+    private String upsertSql() {
+        if (upsertSql == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            upsertSql = "PostgreSQL".equals(product)
+                    ? "INSERT INTO note_view_counts (note_id, view_count) VALUES (?, ?) "
+                            + "ON CONFLICT (note_id) DO UPDATE SET view_count = note_view_counts.view_count + EXCLUDED.view_count"
+                    : "MERGE INTO note_view_counts c USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT))) AS v (note_id, view_count) "
+                            + "ON c.note_id = v.note_id "
+                            + "WHEN MATCHED THEN UPDATE SET view_count = c.view_count + v.view_count "
+                            + "WHEN NOT MATCHED THEN INSERT (note_id, view_count) VALUES (v.note_id, v.view_count)";
+        }
+        return upsertSql;
+    }
+
+    @Override
+    public void destroy() {
+        flush();
+    }
+
+    private static final class PendingViews {
+        private final LongAdder count = new LongAdder();
+        // Only advanced by flush(), which is synchronized
+        private volatile long flushed;
+        // Set by flush() when it drops the counter from the map; record() then counts elsewhere
+        private volatile boolean retired;
+
+        long unflushed() {
+            return count.sum() - flushed;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.syntexa.api.service;
+
+import com.syntexa.api.dto.ProblemNoteStats;
+import com.syntexa.api.model.ChangeStamps;
+import com.syntexa.api.model.Note;
+import com.syntexa.api.model.Problem;
+import com.syntexa.api.model.User;
+import com.syntexa.api.repository.NoteRepository;
+import com.syntexa.api.repository.ProblemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Provisions the shared starter problem and each new user's starter note.
+ * Runs on the onboarding executor so signup latency does not depend on it; users the executor
+ * turns away wait in a bounded deferred queue and are resubmitted on a schedule.
+ */
+@Service
+public class OnboardingService {
+
+    private static final Logger log = LoggerFactory.getLogger(OnboardingService.class);
+
+    static final String STARTER_TITLE = "Welcome to Syntexa: Your Coding Notes Hub";
+    static final String STARTER_TOKEN_PREFIX = "starter-note-";
+
+    private final ProblemRepository problemRepository;
+    private final NoteRepository noteRepository;
+    private final NoteSearchService noteSearchService;
+    private final ProblemCatalog problemCatalog;
+    private final TransactionTemplate writeTx;
+    private final Executor executor;
+    // Users the executor rejected, oldest first; provisioning is idempotent, so a retry is always safe
+    private final BlockingDeque<User> deferred;
+
+    // The starter problem never changes once created, so its id is resolved once per process
+    private volatile Long starterProblemId;
+
+    public OnboardingService(ProblemRepository problemRepository, NoteRepository noteRepository,
+                             NoteSearchService noteSearchService, ProblemCatalog problemCatalog,
+                             PlatformTransactionManager transactionManager,
+                             @Qualifier("onboardingExecutor") Executor executor,
+                             @Value("${app.onboarding.deferred-capacity:10000}") int deferredCapacity) {
+        this.problemRepository = problemRepository;
+        this.noteRepository = noteRepository;
+        this.noteSearchService = noteSearchService;
+        this.problemCatalog = problemCatalog;
+        this.writeTx = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+        this.deferred = new LinkedBlockingDeque<>(deferredCapacity);
+    }
+
+    // Never runs on the caller's thread: when the executor is saturated the user is deferred, and
+    // dropped with a warning only if the deferred queue is full too
+    public void provisionStarterContent(User user) {
+        try {
+            executor.execute(() -> provision(user));
+        } catch (RejectedExecutionException e) {
+            if (!deferred.offerLast(user)) {
+                log.warn("Onboarding backlog full, dropped starter content for user {}", user.getId());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.onboarding.retry-interval-ms:5000}")
+    void resubmitDeferred() {
+        User user;
+        while ((user = deferred.pollFirst()) != null) {
+            User next = user;
+            try {
+                executor.execute(() -> provision(next));
+            } catch (RejectedExecutionException e) {
+                // Still saturated; keep its place and try again next interval
+                if (!deferred.offerFirst(next)) {
+                    log.warn("Onboarding backlog full, dropped starter content for user {}", next.getId());
+                }
+                return;
+            }
+        }
+    }
+
+    int deferredCount() {
+        return deferred.size();
+    }
+
+    private void provision(User user) {
+        try {
+            createOrEnsureStarterProblemAndNote(user);
+        } catch (RuntimeException e) {
+            log.error("Failed to provision starter content for user {}: {}", user.getId(), e.getMessage());
+        }
+    }
+
+    public void createOrEnsureStarterProblemAndNote(User user) {
+        String starterShareToken = STARTER_TOKEN_PREFIX + user.getId();
+        if (noteRepository.existsByShareToken(starterShareToken)) {
+            return;
+        }
+        Note starterNote = new Note();
+        starterNote.setApproachTitle("How to use Syntexa");
+        starterNote.setContent("Welcome! Use Syntexa to save, organize, and share your coding notes and solutions. Start by creating a new problem and adding your own notes.");
+        starterNote.setLanguage("markdown");
+        starterNote.setShareToken(starterShareToken);
+        starterNote.setAuthor(user);
+        Long problemId = resolveStarterProblemId();
+        Note saved = writeTx.execute(status -> {
+            starterNote.setProblem(problemRepository.getReferenceById(problemId));
+            Note note = noteRepository.save(starterNote);
+            recordStarterNoteAdded(problemId, note.getLanguage());
+            return note;
+        });
+        noteSearchService.indexNote(saved, STARTER_TITLE);
+    }
+
+    // Every signup adds a note to the shared starter problem, so instead of locking its row for the
+    // rest of the transaction the statistics are set by one UPDATE conditional on the change stamp
+    // they were read at, retried if another write got in between
+    private void recordStarterNoteAdded(Long problemId, String language) {
+        while (true) {
+            ProblemNoteStats stats = problemRepository.findNoteStats(problemId)
+                    .orElseThrow(() -> new IllegalStateException("Starter problem disappeared: " + problemId));
+            if (stats.getNoteCount() == null) {
+                return; // Not counted yet; ProblemNoteStatsBackfill will include this note
+            }
+            Problem problem = stats.toProblem();
+            problem.recordNoteAdded(language);
+            if (problemRepository.updateNoteStatsIfUnchanged(problemId, problem.getNoteCount(), problem.getNoteLanguages(),
+                    ChangeStamps.next(), stats.getChangeStamp()) == 1) {
+                problemCatalog.updated(problem);
+                return;
+            }
+        }
+    }
+
+    Long resolveStarterProblemId() {
+        Long id = starterProblemId;
+        if (id == null) {
+            id = problemRepository.findByTitle(STARTER_TITLE)
+                    .map(Problem::getId)
+                    .orElseGet(this::insertStarterProblem);
+            starterProblemId = id;
+        }
+        return id;
+    }
+
+    private Long insertStarterProblem() {
+        Problem starterProblem = new Problem();
+        starterProblem.setTitle(STARTER_TITLE);
+        starterProblem.setDescription("Get started by creating your first coding note! This starter problem is shared by all users.");
+        try {
+            Problem saved = problemRepository.save(starterProblem);
+            problemCatalog.updated(saved);
+            return saved.getId();
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent signup inserted it first; the unique title constraint makes this safe
+            return problemRepository.findByTitle(STARTER_TITLE)
+                    .map(Problem::getId)
+                    .orElseThrow(() -> e);
+        }
+    }
+}
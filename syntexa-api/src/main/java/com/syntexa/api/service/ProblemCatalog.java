@@ -0,0 +1,356 @@
+package com.syntexa.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.syntexa.api.config.ReadWriteRoutingDataSource;
+import com.syntexa.api.dto.ProblemSummaryDTO;
+import com.syntexa.api.model.ChangeStamps;
+import com.syntexa.api.model.Problem;
+import com.syntexa.api.repository.ProblemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-memory copy of the problem catalog, so catalog reads need neither the database nor Jackson.
+ * The set of problems is held as an immutable {@link Snapshot}: adding a problem produces a new
+ * snapshot (copy-on-write) that replaces the current one in a single volatile write, so readers
+ * never lock and never see a half-applied change. Note statistics change with every note write,
+ * so they are not part of the snapshot: each {@link Entry} carries its JSON, statistics included,
+ * in a field of its own that is swapped without copying anything else.
+ * <p>
+ * Writers call {@link #updated(Problem)} for each problem they create or whose note statistics
+ * they change; the new JSON is rendered before commit (while the row is still locked) and
+ * published once the transaction has committed. The catalog is loaded at startup and then
+ * refreshed periodically with the problems changed since the previous pass (by change stamp),
+ * which picks up problems written by other instances; a problem asked for before the next
+ * refresh is loaded on its own with {@link #load(Long)}.
+ */
+@Service
+public class ProblemCatalog implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(ProblemCatalog.class);
+
+    private final ProblemRepository problemRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTx;
+    private final long lookbackMicros;
+    // Orders renderings of the same problem: taken under the problem's row lock, so in commit order
+    private final AtomicLong revisions = new AtomicLong();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    // Guards refreshFrom, the change stamp from which the next refresh reads
+    private final Object refreshLock = new Object();
+    private long refreshFrom;
+
+    public ProblemCatalog(ProblemRepository problemRepository, ObjectMapper objectMapper,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${app.problems.catalog.refresh-lookback-ms:10000}") long lookbackMs) {
+        this.problemRepository = problemRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.lookbackMicros = lookbackMs * 1_000L;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reload();
+    }
+
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Loads every problem in the database into the catalog. Renderings published while the rows
+     * were being read are newer than what was read, so they are kept.
+     */
+    public void reload() {
+        synchronized (refreshLock) {
+            long started = System.currentTimeMillis();
+            long from = ChangeStamps.currentMicros() - lookbackMicros;
+            if (apply(problemRepository::findAll)) {
+                refreshFrom = from;
+                log.debug("Loaded {} problems into the catalog in {} ms", snapshot.size(), System.currentTimeMillis() - started);
+            }
+        }
+    }
+
+    /**
+     * Applies the problems written since the previous pass, by this or any other instance. Change
+     * stamps are taken before commit and come from several clocks, so each pass looks back over
+     * {@code app.problems.catalog.refresh-lookback-ms}; re-reading a problem is harmless.
+     */
+    @Scheduled(initialDelayString = "${app.problems.catalog.refresh-interval-ms:60000}",
+               fixedDelayString = "${app.problems.catalog.refresh-interval-ms:60000}")
+    public void refresh() {
+        synchronized (refreshLock) {
+            long since = refreshFrom;
+            long from = ChangeStamps.currentMicros() - lookbackMicros;
+            if (apply(() -> problemRepository.findChangedSince(since))) {
+                refreshFrom = from;
+            }
+        }
+    }
+
+    // Renders and applies the problems read; false (keeping the current catalog) if reading failed
+    private boolean apply(Supplier<List<Problem>> read) {
+        try {
+            long revision = revisions.incrementAndGet();
+            List<Entry> loaded = readOnlyTx.execute(status -> read.get().stream()
+                    .map(problem -> render(problem, revision))
+                    .toList());
+            publishAll(loaded);
+            return true;
+        } catch (Exception e) {
+            log.warn("Could not load the problem catalog, keeping the current one: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Loads one problem that is not in the catalog (e.g. written by another instance since the
+     * last reload) and publishes it. As in {@link #reload()}, the revision is taken before the row
+     * is read, so a change committed in the meantime is kept. Read from the primary, since a
+     * replica may not have the problem yet. Null if there is no such problem.
+     */
+    public Entry load(Long id) {
+        long revision = revisions.incrementAndGet();
+        Entry loaded = ReadWriteRoutingDataSource.readFromPrimary(() -> readOnlyTx.execute(status ->
+                problemRepository.findById(id)
+                        .map(problem -> render(problem, revision))
+                        .orElse(null)));
+        return loaded == null ? null : publish(loaded);
+    }
+
+    /**
+     * Publishes the state of a created or changed problem once the current transaction commits
+     * (immediately when there is none, e.g. after a repository save that committed on its own).
+     * Nothing is published if the transaction rolls back.
+     */
+    public void updated(Problem problem) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(render(problem, revisions.incrementAndGet()));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private Entry entry;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                // Rendered from the final state of the transaction, while its row locks are held
+                entry = render(problem, revisions.incrementAndGet());
+            }
+
+            @Override
+            public void afterCommit() {
+                publish(entry);
+            }
+        });
+    }
+
+    /**
+     * Publishes a rendering and returns the problem's entry. A problem already in the catalog
+     * only has its JSON swapped (the newer revision wins); only a new problem copies the snapshot.
+     */
+    private Entry publish(Entry entry) {
+        Entry current = snapshot.get(entry.id);
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot.get(entry.id);
+                if (current == null) {
+                    snapshot = snapshot.with(entry);
+                    return entry;
+                }
+            }
+        }
+        current.offer(entry.rendered);
+        return current;
+    }
+
+    // As publish(), but copies the snapshot at most once however many problems are new
+    private synchronized void publishAll(List<Entry> entries) {
+        List<Entry> added = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            Entry current = snapshot.get(entry.id);
+            if (current != null) {
+                current.offer(entry.rendered);
+            } else {
+                added.add(entry);
+            }
+        }
+        if (!added.isEmpty()) {
+            snapshot = snapshot.withAll(added);
+        }
+    }
+
+    private Entry render(Problem problem, long revision) {
+        try {
+            byte[] summary = objectMapper.writeValueAsBytes(new ProblemSummaryDTO(
+                    problem.getId(), problem.getTitle(), problem.getNoteCount(), problem.getNoteLanguages()));
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("id", problem.getId());
+            fields.put("title", problem.getTitle());
+            fields.put("description", problem.getDescription());
+            fields.put("noteCount", problem.getNoteCount());
+            fields.put("noteLanguages", problem.getNoteLanguages());
+            byte[] detail = objectMapper.writeValueAsBytes(fields);
+            return new Entry(problem.getId(), problem.getTitle(), new Rendered(revision, summary, detail));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not render problem " + problem.getId(), e);
+        }
+    }
+
+    /**
+     * One problem as served: its summary (a listing item) and its detail fields, both as JSON.
+     * The title never changes; the JSON is replaced whenever the note statistics change.
+     */
+    public static final class Entry {
+        private final Long id;
+        private final String title;
+        private final String normalizedTitle;
+        private volatile Rendered rendered;
+
+        Entry(Long id, String title, Rendered rendered) {
+            this.id = id;
+            this.title = title;
+            this.normalizedTitle = title.toLowerCase(Locale.ROOT);
+            this.rendered = rendered;
+        }
+
+        public Long getId() { return id; }
+        public String getTitle() { return title; }
+        // Lower-cased title, for case-insensitive filtering
+        public String getNormalizedTitle() { return normalizedTitle; }
+        public byte[] getSummaryJson() { return rendered.summaryJson; }
+        // The problem's fields without its notes, as one JSON object
+        public byte[] getDetailJson() { return rendered.detailJson; }
+
+        private synchronized void offer(Rendered next) {
+            if (rendered.revision < next.revision) {
+                rendered = next;
+            }
+        }
+    }
+
+    private static final class Rendered {
+        private final long revision;
+        private final byte[] summaryJson;
+        private final byte[] detailJson;
+
+        private Rendered(long revision, byte[] summaryJson, byte[] detailJson) {
+            this.revision = revision;
+            this.summaryJson = summaryJson;
+            this.detailJson = detailJson;
+        }
+    }
+
+    /**
+     * Immutable set of the catalog's problems, sorted by id and by title, with a prefix index over
+     * the titles. Never modified once published; {@link #with(Entry)} returns a copy.
+     */
+    public static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new Entry[0], new Entry[0], TitlePrefixIndex.EMPTY);
+        private static final Rendered NONE = new Rendered(0, null, null);
+
+        private static final Comparator<Entry> BY_ID = Comparator.comparing(Entry::getId);
+        private static final Comparator<Entry> BY_TITLE = Comparator.comparing(Entry::getTitle);
+
+        private final Entry[] byId;
+        private final Entry[] byTitle;
+        private final TitlePrefixIndex titles;
+
+        private Snapshot(Entry[] byId, Entry[] byTitle, TitlePrefixIndex titles) {
+            this.byId = byId;
+            this.byTitle = byTitle;
+            this.titles = titles;
+        }
+
+        // A copy that also holds the given problems, none of which may be in this snapshot yet
+        Snapshot withAll(List<Entry> added) {
+            Entry[] byId = Arrays.copyOf(this.byId, this.byId.length + added.size());
+            for (int i = 0; i < added.size(); i++) {
+                byId[this.byId.length + i] = added.get(i);
+            }
+            Arrays.sort(byId, BY_ID);
+            Entry[] byTitle = byId.clone();
+            Arrays.sort(byTitle, BY_TITLE);
+            return new Snapshot(byId, byTitle, TitlePrefixIndex.of(Arrays.asList(byId)));
+        }
+
+        public int size() {
+            return byId.length;
+        }
+
+        public Entry get(Long id) {
+            int i = Arrays.binarySearch(byId, new Entry(id, "", NONE), BY_ID);
+            return i >= 0 ? byId[i] : null;
+        }
+
+        // Up to limit problems whose title, or a word in it, starts with the query; see TitlePrefixIndex
+        public List<Entry> suggest(String query, int limit) {
+            return titles.search(query, limit).stream().map(this::get).toList();
+        }
+
+        // Entries ordered by id, starting after afterId
+        public List<Entry> afterId(long afterId) {
+            return tail(byId, firstAfter(byId, new Entry(afterId, "", NONE), BY_ID));
+        }
+
+        // Entries ordered by title, starting after afterTitle
+        public List<Entry> afterTitle(String afterTitle) {
+            return tail(byTitle, firstAfter(byTitle, new Entry(0L, afterTitle, NONE), BY_TITLE));
+        }
+
+        // A copy that also holds a problem not in this snapshot yet
+        Snapshot with(Entry entry) {
+            return new Snapshot(inserted(byId, entry, BY_ID), inserted(byTitle, entry, BY_TITLE),
+                    titles.with(entry.id, entry.title));
+        }
+
+        private static Entry[] inserted(Entry[] sorted, Entry entry, Comparator<Entry> order) {
+            int at = firstAfter(sorted, entry, order);
+            Entry[] copy = new Entry[sorted.length + 1];
+            System.arraycopy(sorted, 0, copy, 0, at);
+            copy[at] = entry;
+            System.arraycopy(sorted, at, copy, at + 1, sorted.length - at);
+            return copy;
+        }
+
+        // Index of the first entry ordered strictly after the key
+        private static int firstAfter(Entry[] sorted, Entry key, Comparator<Entry> order) {
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (order.compare(sorted[mid], key) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static List<Entry> tail(Entry[] sorted, int from) {
+            return Arrays.asList(sorted).subList(from, sorted.length);
+        }
+    }
+}
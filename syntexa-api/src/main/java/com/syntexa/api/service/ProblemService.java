@@ -1,32 +1,153 @@
 package com.syntexa.api.service;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.syntexa.api.dto.CursorPage;
 import com.syntexa.api.dto.ProblemCreateRequest;
+import com.syntexa.api.model.Note;
 import com.syntexa.api.model.Problem;
+import com.syntexa.api.repository.NoteRepository;
 import com.syntexa.api.repository.ProblemRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 @Service
 public class ProblemService {
 
     private static final Logger log = LoggerFactory.getLogger(ProblemService.class);
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final int DEFAULT_SUGGESTIONS = 10;
+    public static final int MAX_SUGGESTIONS = 50;
+
+    private static final byte[] ITEMS_START = "{\"items\":[".getBytes(StandardCharsets.UTF_8);
+
     private final ProblemRepository problemRepository;
+    private final NoteRepository noteRepository;
+    private final ProblemCatalog problemCatalog;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTx;
 
-    public ProblemService(ProblemRepository problemRepository) {
+    public ProblemService(ProblemRepository problemRepository, NoteRepository noteRepository,
+                          ProblemCatalog problemCatalog, ObjectMapper objectMapper,
+                          PlatformTransactionManager transactionManager) {
         this.problemRepository = problemRepository;
+        this.noteRepository = noteRepository;
+        this.problemCatalog = problemCatalog;
+        this.objectMapper = objectMapper;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
     }
 
-    public List<Problem> getAllProblems() {
-        log.info("Fetching all problems from the database.");
-        return problemRepository.findAll();
+    /**
+     * Returns one page of the problem catalog as summaries, as a JSON body in the shape of
+     * {@link CursorPage}. Served from {@link ProblemCatalog}: no query runs, and each summary's
+     * JSON was serialized when the problem last changed. Pages seek past {@code cursor}.
+     *
+     * @param cursor opaque cursor from a previous page, or null for the first page
+     * @param limit  page size, clamped to [1, MAX_PAGE_SIZE]
+     * @param sort   "id" (default) or "title"
+     * @param query  optional case-insensitive title filter
+     */
+    public byte[] getProblemPage(String cursor, Integer limit, String sort, String query) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        boolean byTitle = "title".equalsIgnoreCase(sort);
+        if (sort != null && !byTitle && !"id".equalsIgnoreCase(sort)) {
+            throw new IllegalArgumentException("Unsupported sort: " + sort);
+        }
+        String filter = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        ProblemCatalog.Snapshot catalog = problemCatalog.snapshot();
+        List<ProblemCatalog.Entry> candidates;
+        if (byTitle) {
+            String afterTitle = CursorPage.decodeCursor(cursor);
+            candidates = catalog.afterTitle(afterTitle == null ? "" : afterTitle);
+        } else {
+            candidates = catalog.afterId(CursorPage.decodeIdCursor(cursor));
+        }
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.writeBytes(ITEMS_START);
+        ProblemCatalog.Entry last = null;
+        int count = 0;
+        boolean hasMore = false;
+        for (ProblemCatalog.Entry entry : candidates) {
+            if (!entry.getNormalizedTitle().contains(filter)) {
+                continue;
+            }
+            if (count == pageSize) {
+                hasMore = true;
+                break;
+            }
+            if (count++ > 0) {
+                body.write(',');
+            }
+            body.writeBytes(entry.getSummaryJson());
+            last = entry;
+        }
+        String nextCursor = hasMore
+                ? "\"" + CursorPage.encodeCursor(byTitle ? last.getTitle() : String.valueOf(last.getId())) + "\""
+                : "null";
+        body.writeBytes(("],\"nextCursor\":" + nextCursor + ",\"hasMore\":" + hasMore + "}").getBytes(StandardCharsets.UTF_8));
+        return body.toByteArray();
+    }
+
+    /**
+     * Typeahead over problem titles: a JSON array of up to {@code limit} summaries (listing items)
+     * whose title, or a word in it, starts with {@code query}, ignoring case, accents and
+     * punctuation. Served from the catalog's title index; no query runs.
+     */
+    public byte[] suggestProblems(String query, Integer limit) {
+        int max = limit == null ? DEFAULT_SUGGESTIONS : Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write('[');
+        List<ProblemCatalog.Entry> matches = query == null ? List.of() : problemCatalog.snapshot().suggest(query, max);
+        for (int i = 0; i < matches.size(); i++) {
+            if (i > 0) {
+                body.write(',');
+            }
+            body.writeBytes(matches.get(i).getSummaryJson());
+        }
+        body.write(']');
+        return body.toByteArray();
     }
 
-    public Optional<Problem> getProblemById(Long id) {
-        log.info("Fetching problem with ID: {}", id);
-        return problemRepository.findById(id);
+    /**
+     * The problem's fields from {@link ProblemCatalog} with its notes (one query; they change with
+     * every note write, so they are not part of the catalog). A problem the catalog does not hold
+     * yet is loaded into it first. Empty if there is no such problem.
+     */
+    public Optional<byte[]> getProblemDetail(Long id) {
+        ProblemCatalog.Entry entry = problemCatalog.snapshot().get(id);
+        if (entry == null) {
+            entry = problemCatalog.load(id);
+            if (entry == null) {
+                return Optional.empty();
+            }
+        }
+        List<Note> notes = readOnlyTx.execute(status -> noteRepository.findByProblemId(id));
+        try {
+            byte[] fields = entry.getDetailJson();
+            byte[] notesField = objectMapper.writeValueAsBytes(new ProblemNotes(notes));
+            // {"id":...} and {"notes":[...]} joined into one object
+            byte[] detail = Arrays.copyOf(fields, fields.length + notesField.length - 1);
+            detail[fields.length - 1] = ',';
+            System.arraycopy(notesField, 1, detail, fields.length, notesField.length - 1);
+            return Optional.of(detail);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not render problem " + id, e);
+        }
     }
 
     public Problem createProblem(ProblemCreateRequest request) {
@@ -35,7 +156,11 @@ public class ProblemService {
         newProblem.setTitle(request.getTitle());
         newProblem.setDescription(request.getDescription());
         Problem savedProblem = problemRepository.save(newProblem);
+        problemCatalog.updated(savedProblem);
         log.info("Problem created successfully with ID: {}", savedProblem.getId());
         return savedProblem;
     }
-}
\ No newline at end of file
+
+    // Notes are listed the way Problem.notes serializes them: without bodies or authors
+    private record ProblemNotes(@JsonIgnoreProperties({"problem", "author", "notes", "content"}) List<Note> notes) {}
+}
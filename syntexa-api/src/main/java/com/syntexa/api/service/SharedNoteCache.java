@@ -0,0 +1,115 @@
+package com.syntexa.api.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-process cache of rendered shared-note responses, keyed by share token.
+ * The bound is on total body bytes, not entry count, since note sizes vary widely.
+ */
+@Component
+public class SharedNoteCache {
+
+    private final Map<String, RenderedNote> entries = new ConcurrentHashMap<>();
+    // Share tokens never change once set, so a cached note can be found by id for invalidation
+    private final Map<Long, String> tokensByNoteId = new ConcurrentHashMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+    // Bumped on every invalidation so a render that raced with an edit is not cached
+    private final AtomicLong generation = new AtomicLong();
+    private final long maxBytes;
+    private final int maxEntryBytes;
+
+    public SharedNoteCache(
+            @Value("${app.shared-notes.cache.max-bytes:33554432}") long maxBytes,
+            @Value("${app.shared-notes.cache.max-entry-bytes:1048576}") int maxEntryBytes
+    ) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    public RenderedNote get(String shareToken) {
+        return entries.get(shareToken);
+    }
+
+    public long currentGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Caches a rendering produced while {@code renderGeneration} was current. Skipped if the
+     * entry is too large or an invalidation happened since the render started.
+     */
+    public void put(String shareToken, RenderedNote rendered, long renderGeneration) {
+        int size = rendered.getBody().length;
+        if (size > maxEntryBytes || generation.get() != renderGeneration) {
+            return;
+        }
+        RenderedNote previous = entries.put(shareToken, rendered);
+        tokensByNoteId.put(rendered.getNoteId(), shareToken);
+        totalBytes.addAndGet(size - (previous == null ? 0 : previous.getBody().length));
+        if (generation.get() != renderGeneration) {
+            invalidate(shareToken);
+        }
+        evictOverflow();
+    }
+
+    public void invalidate(String shareToken) {
+        generation.incrementAndGet();
+        if (shareToken == null) {
+            return;
+        }
+        RenderedNote removed = entries.remove(shareToken);
+        if (removed != null) {
+            tokensByNoteId.remove(removed.getNoteId(), shareToken);
+            totalBytes.addAndGet(-removed.getBody().length);
+        }
+    }
+
+    // For writes that know the note's id but not its share token
+    public void invalidateNote(Long noteId) {
+        String shareToken = tokensByNoteId.get(noteId);
+        if (shareToken != null) {
+            invalidate(shareToken);
+        } else {
+            generation.incrementAndGet();
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, RenderedNote>> it = entries.entrySet().iterator();
+        while (totalBytes.get() > maxBytes && it.hasNext()) {
+            Map.Entry<String, RenderedNote> victim = it.next();
+            if (entries.remove(victim.getKey(), victim.getValue())) {
+                tokensByNoteId.remove(victim.getValue().getNoteId(), victim.getKey());
+                totalBytes.addAndGet(-victim.getValue().getBody().length);
+            }
+        }
+    }
+
+    /**
+     * Pre-serialized JSON body with the validators used for conditional requests.
+     */
+    public static final class RenderedNote {
+        private final Long noteId;
+        private final byte[] body;
+        private final String etag;
+        private final long lastModified;
+
+        public RenderedNote(Long noteId, byte[] body, String etag, long lastModified) {
+            this.noteId = noteId;
+            this.body = body;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        public Long getNoteId() { return noteId; }
+        public byte[] getBody() { return body; }
+        public String getEtag() { return etag; }
+        public long getLastModified() { return lastModified; }
+    }
+}
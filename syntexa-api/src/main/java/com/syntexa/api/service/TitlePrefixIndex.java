@@ -0,0 +1,153 @@
+package com.syntexa.api.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable prefix index over problem titles, for typeahead. Titles are normalized (lower case,
+ * accents dropped, punctuation and runs of whitespace turned into single spaces), and every
+ * suffix of a normalized title that starts at a word is a key, so "sum" finds "Two Sum" as well
+ * as "Sum of Subarrays". Keys are held in one sorted array with parallel arrays of problem ids,
+ * so a lookup is two binary searches plus a walk over the matching keys, with no allocation
+ * beyond the result.
+ */
+public final class TitlePrefixIndex {
+
+    static final TitlePrefixIndex EMPTY = new TitlePrefixIndex(new String[0], new long[0], new boolean[0]);
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final String[] keys;
+    private final long[] ids;
+    // Whether the key is the whole title (rather than a suffix of it); those rank first
+    private final boolean[] whole;
+
+    private TitlePrefixIndex(String[] keys, long[] ids, boolean[] whole) {
+        this.keys = keys;
+        this.ids = ids;
+        this.whole = whole;
+    }
+
+    static TitlePrefixIndex of(List<? extends ProblemCatalog.Entry> entries) {
+        List<Key> all = new ArrayList<>();
+        entries.forEach(entry -> addKeys(all, entry.getId(), entry.getTitle()));
+        all.sort(Key.ORDER);
+        return fromSorted(all);
+    }
+
+    public static String normalize(String text) {
+        String decomposed = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFKD)).replaceAll("");
+        return SEPARATORS.matcher(decomposed.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Returns a copy that also indexes the title. Titles never change, so a problem is only
+     * added once; adding it again returns this index.
+     */
+    TitlePrefixIndex with(long id, String title) {
+        String normalized = normalize(title);
+        int at = firstAtOrAfter(normalized);
+        for (int i = at; i < keys.length && keys[i].equals(normalized); i++) {
+            if (ids[i] == id) {
+                return this;
+            }
+        }
+        List<Key> added = new ArrayList<>();
+        addKeys(added, id, title);
+        added.sort(Key.ORDER);
+        List<Key> merged = new ArrayList<>(keys.length + added.size());
+        int i = 0;
+        for (Key key : added) {
+            while (i < keys.length && compare(keys[i], ids[i], key) <= 0) {
+                merged.add(new Key(keys[i], ids[i], whole[i]));
+                i++;
+            }
+            merged.add(key);
+        }
+        for (; i < keys.length; i++) {
+            merged.add(new Key(keys[i], ids[i], whole[i]));
+        }
+        return fromSorted(merged);
+    }
+
+    /**
+     * Ids of up to {@code limit} problems whose title, or a word in it, starts with the query.
+     * Titles that start with it come first; within each group matches are in normalized order.
+     */
+    public List<Long> search(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        int from = firstAtOrAfter(prefix);
+        int to = firstAtOrAfter(prefix + Character.MAX_VALUE);
+        Set<Long> found = new LinkedHashSet<>();
+        for (int i = from; i < to && found.size() < limit; i++) {
+            if (whole[i]) {
+                found.add(ids[i]);
+            }
+        }
+        for (int i = from; i < to && found.size() < limit; i++) {
+            found.add(ids[i]);
+        }
+        return new ArrayList<>(found);
+    }
+
+    private int firstAtOrAfter(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static void addKeys(List<Key> keys, long id, String title) {
+        String normalized = normalize(title);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        keys.add(new Key(normalized, id, true));
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            keys.add(new Key(normalized.substring(i + 1), id, false));
+        }
+    }
+
+    private static int compare(String key, long id, Key other) {
+        int byKey = key.compareTo(other.key);
+        return byKey != 0 ? byKey : Long.compare(id, other.id);
+    }
+
+    private static TitlePrefixIndex fromSorted(List<Key> sorted) {
+        String[] keys = new String[sorted.size()];
+        long[] ids = new long[sorted.size()];
+        boolean[] whole = new boolean[sorted.size()];
+        for (int i = 0; i < keys.length; i++) {
+            Key key = sorted.get(i);
+            keys[i] = key.key;
+            ids[i] = key.id;
+            whole[i] = key.whole;
+        }
+        return new TitlePrefixIndex(keys, ids, whole);
+    }
+
+    private record Key(String key, long id, boolean whole) {
+        static final Comparator<Key> ORDER = Comparator.comparing(Key::key).thenComparingLong(Key::id);
+    }
+}
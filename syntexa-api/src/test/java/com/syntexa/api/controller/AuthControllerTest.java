@@ -0,0 +1,41 @@
+package com.syntexa.api.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AuthControllerTest extends ControllerIntegrationTest {
+
+    @Test
+    void signupChecksUniquenessAndInsertsOnce() throws Exception {
+        String username = uniqueUsername("signup");
+        mockMvc.perform(post("/api/v1/auth/signup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("username", username, "email", username + "@example.com", "password", "password123"))))
+                .andExpect(status().isCreated())
+                .andExpect(statementsAtMost(4));
+    }
+
+    @Test
+    void loginLoadsTheUserOnce() throws Exception {
+        String username = uniqueUsername("login");
+        signUp(username, "password123");
+        mockMvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("username", username, "password", "password123"))))
+                .andExpect(status().isOk())
+                .andExpect(statements(1));
+    }
+
+    @Test
+    void refreshLoadsTheUserOnce() throws Exception {
+        String bearer = bearerForNewUser("refresh");
+        mockMvc.perform(post("/api/v1/auth/refresh").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(statements(1));
+    }
+}
@@ -0,0 +1,46 @@
+package com.syntexa.api.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class BulkControllerTest extends ControllerIntegrationTest {
+
+    private String bearer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        bearer = bearerForNewUser("bulk");
+    }
+
+    // One title lookup, one id-sequence call and one insert batch per chunk
+    @Test
+    void problemImportChecksTitlesOncePerChunk() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            ndjson.append(json(Map.of("title", uniqueUsername("Imported problem "), "description", "d"))).append('\n');
+        }
+        mockMvc.perform(post("/api/v1/bulk/problems/import").header("Authorization", bearer).content(ndjson.toString()))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(3));
+    }
+
+    @Test
+    void noteImportResolvesProblemTitlesPerChunk() throws Exception {
+        String title = uniqueUsername("Bulk note problem ");
+        createProblem(bearer, title);
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            ndjson.append(json(Map.of("problemTitle", title, "approachTitle", "Approach " + i,
+                    "content", "x", "language", "java"))).append('\n');
+        }
+        // Title lookup, problem lock, id sequence, insert batch, problem statistics update
+        mockMvc.perform(post("/api/v1/bulk/notes/import").header("Authorization", bearer).content(ndjson.toString()))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(5));
+    }
+}
@@ -0,0 +1,103 @@
+package com.syntexa.api.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.syntexa.api.config.RequestMetricsFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Base for controller integration tests. Each request's SQL statement count is checked against
+ * the handler's @StatementBudget by the application itself (the test profile enforces budgets);
+ * tests also pin the exact count with {@link #statements(int)} so regressions show up in review.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+abstract class ControllerIntegrationTest {
+
+    private static final AtomicInteger USER_SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected ObjectMapper objectMapper;
+
+    protected static ResultMatcher statements(int expected) {
+        return result -> assertEquals(expected,
+                result.getRequest().getAttribute(RequestMetricsFilter.STATEMENT_COUNT_ATTRIBUTE),
+                "SQL statements issued by " + result.getRequest().getRequestURI());
+    }
+
+    // For inserts: one extra statement whenever the pooled id sequence needs its next block
+    protected static ResultMatcher statementsAtMost(int budget) {
+        return result -> {
+            Object count = result.getRequest().getAttribute(RequestMetricsFilter.STATEMENT_COUNT_ATTRIBUTE);
+            assertTrue((Integer) count <= budget,
+                    "SQL statements issued by " + result.getRequest().getRequestURI() + ": " + count + " > " + budget);
+        };
+    }
+
+    protected static String uniqueUsername(String prefix) {
+        return prefix + USER_SEQUENCE.incrementAndGet() + "_" + System.nanoTime() % 100000;
+    }
+
+    protected void signUp(String username, String password) throws Exception {
+        mockMvc.perform(post("/api/v1/auth/signup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("username", username, "email", username + "@example.com", "password", password))))
+                .andExpect(status().isCreated());
+    }
+
+    /**
+     * Registers a fresh user and returns an "Authorization" header value for them.
+     */
+    protected String bearerForNewUser(String prefix) throws Exception {
+        String username = uniqueUsername(prefix);
+        signUp(username, "password123");
+        String body = mockMvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("username", username, "password", "password123"))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return "Bearer " + objectMapper.readTree(body).get("token").asText();
+    }
+
+    protected long createProblem(String bearer, String title) throws Exception {
+        String body = mockMvc.perform(post("/api/v1/problems")
+                        .header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("title", title, "description", "Description of " + title))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+
+    protected JsonNode createNote(String bearer, long problemId, String approachTitle) throws Exception {
+        String body = mockMvc.perform(post("/api/v1/problems/{problemId}/notes", problemId)
+                        .header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("approachTitle", approachTitle, "content", "int answer = 42;", "language", "java"))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    protected String json(Object value) throws Exception {
+        return objectMapper.writeValueAsString(value);
+    }
+}
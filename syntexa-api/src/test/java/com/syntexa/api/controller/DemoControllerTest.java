@@ -0,0 +1,17 @@
+package com.syntexa.api.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class DemoControllerTest extends ControllerIntegrationTest {
+
+    @Test
+    void securedHelloDoesNotTouchTheDatabase() throws Exception {
+        String bearer = bearerForNewUser("demo");
+        mockMvc.perform(get("/api/v1/demo/hello-secure").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(statements(0));
+    }
+}
@@ -0,0 +1,17 @@
+package com.syntexa.api.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class HealthCheckControllerTest extends ControllerIntegrationTest {
+
+    @Test
+    void healthCheckDoesNotTouchTheDatabase() throws Exception {
+        String bearer = bearerForNewUser("health");
+        mockMvc.perform(get("/api/v1/health").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(statements(0));
+    }
+}
@@ -0,0 +1,433 @@
+package com.syntexa.api.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.syntexa.api.service.NoteViewCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class NoteControllerTest extends ControllerIntegrationTest {
+
+    @Autowired
+    private NoteViewCounter noteViewCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String bearer;
+    private String shareUrl;
+    private long sharedProblemId;
+    private long noteId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        bearer = bearerForNewUser("mine");
+        for (int p = 0; p < 3; p++) {
+            long problemId = createProblem(bearer, uniqueUsername("Listed note problem "));
+            for (int n = 0; n < 4; n++) {
+                createNote(bearer, problemId, "Approach " + n);
+            }
+        }
+        sharedProblemId = createProblem(bearer, uniqueUsername("Shared note problem "));
+        noteId = createNote(bearer, sharedProblemId, "Shared approach").get("id").asLong();
+        shareUrl = mockMvc.perform(post("/api/v1/problems/{problemId}/notes/{noteId}/share", sharedProblemId, noteId)
+                        .header("Authorization", bearer))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    @Test
+    void listingIsOneQueryWhateverTheNoteCount() throws Exception {
+        mockMvc.perform(get("/api/v1/notes/mine").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(statements(1));
+        mockMvc.perform(get("/api/v1/notes/mine").param("includeContent", "true").param("limit", "5")
+                        .header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(statements(1));
+    }
+
+    @Test
+    void changeFeedDeliversEditsAndTombstonesAfterTheCursor() throws Exception {
+        long problemId = createProblem(bearer, uniqueUsername("Synced problem "));
+        long edited = createNote(bearer, problemId, "To edit").get("id").asLong();
+        long deleted = createNote(bearer, problemId, "To delete").get("id").asLong();
+
+        // Changes younger than the settle window are delivered, but the cursor stays put
+        JsonNode recent = changes(null, true);
+        assertTrue(ids(recent).containsAll(List.of(edited, deleted)));
+        assertEquals("int answer = 42;", findChange(recent, edited).get("content").asText());
+        assertTrue(ids(changes(recent.get("cursor").asText(), false)).containsAll(List.of(edited, deleted)));
+
+        Thread.sleep(1100);
+        String cursor = drain(null);
+        assertEquals(List.of(), ids(changes(cursor, false)));
+
+        mockMvc.perform(put("/api/v1/problems/{problemId}/notes/{noteId}", problemId, edited)
+                        .header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("approachTitle", "Edited", "content", "y", "language", "java"))))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/v1/problems/{problemId}/notes/{noteId}", problemId, deleted)
+                        .header("Authorization", bearer))
+                .andExpect(status().isOk());
+
+        JsonNode delta = changes(cursor, false);
+        assertEquals(List.of(edited, deleted), ids(delta));
+        assertEquals("Edited", findChange(delta, edited).get("approachTitle").asText());
+        assertTrue(findChange(delta, deleted).get("deleted").asBoolean());
+        // The tombstone is invisible everywhere else
+        mockMvc.perform(get("/api/v1/notes/{noteId}/content", deleted).header("Authorization", bearer))
+                .andExpect(status().isNotFound());
+        JsonNode detail = objectMapper.readTree(mockMvc.perform(get("/api/v1/problems/{id}", problemId)
+                        .header("Authorization", bearer))
+                .andReturn().getResponse().getContentAsString());
+        assertEquals(1, detail.get("notes").size());
+        assertEquals(1, detail.get("noteCount").asInt());
+    }
+
+    @Test
+    void fullPageReachingIntoTheSettleWindowStopsAtItsSettledChanges() throws Exception {
+        String author = bearerForNewUser("feed");
+        long problemId = createProblem(author, uniqueUsername("Feed problem "));
+        for (int i = 0; i < 3; i++) {
+            createNote(author, problemId, "Settled " + i);
+        }
+        Thread.sleep(1100);
+        List<Long> recent = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            recent.add(createNote(author, problemId, "Recent " + i).get("id").asLong());
+        }
+
+        // The first page is full and ends inside the window: only its settled changes are delivered
+        JsonNode first = changes(author, null, 5);
+        assertTrue(first.get("hasMore").asBoolean());
+        assertTrue(ids(first).size() >= 3);
+        assertTrue(ids(first).stream().noneMatch(recent::contains));
+
+        JsonNode second = changes(author, first.get("cursor").asText(), 5);
+        assertEquals(recent, ids(second));
+        assertEquals(first.get("cursor").asText(), second.get("cursor").asText());
+        assertFalse(second.get("hasMore").asBoolean());
+    }
+
+    private JsonNode changes(String author, String since, int limit) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get("/api/v1/notes/mine/changes")
+                        .param("since", since == null ? "" : since)
+                        .param("limit", String.valueOf(limit))
+                        .header("Authorization", author))
+                .andExpect(status().isOk())
+                .andExpect(statements(1))
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private JsonNode changes(String since, boolean includeContent) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get("/api/v1/notes/mine/changes")
+                        .param("since", since == null ? "" : since)
+                        .param("includeContent", String.valueOf(includeContent))
+                        .header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(statements(1))
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    // Follows the feed until no page is immediately available and returns the final cursor
+    private String drain(String since) throws Exception {
+        JsonNode page;
+        do {
+            page = changes(since, false);
+            since = page.get("cursor").asText();
+        } while (page.get("hasMore").asBoolean());
+        return since;
+    }
+
+    private static List<Long> ids(JsonNode page) {
+        List<Long> ids = new ArrayList<>();
+        page.get("changes").forEach(change -> ids.add(change.get("id").asLong()));
+        return ids;
+    }
+
+    private static JsonNode findChange(JsonNode page, long id) {
+        for (JsonNode change : page.get("changes")) {
+            if (change.get("id").asLong() == id) {
+                return change;
+            }
+        }
+        throw new AssertionError("No change for note " + id);
+    }
+
+    @Test
+    void contentIsOneQueryAndServesByteRanges() throws Exception {
+        String body = mockMvc.perform(get("/api/v1/notes/{noteId}/content", noteId).header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(statements(1))
+                .andReturn().getResponse().getContentAsString();
+        mockMvc.perform(get("/api/v1/notes/{noteId}/content", noteId).header("Authorization", bearer)
+                        .header("Range", "bytes=0-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 0-3/" + body.length()))
+                .andExpect(content().string(body.substring(0, 4)))
+                .andExpect(statements(1));
+    }
+
+    @Test
+    void largeNotesAreStoredCompressedAndReadBackUnchanged() throws Exception {
+        long problemId = createProblem(bearer, uniqueUsername("Large note problem "));
+        String large = "dp[i][j] = Math.max(dp[i - 1][j], dp[i][j - 1]); // Ünïcödé ✓\n".repeat(200);
+        String marked = "\u0001z:looks like the compressed marker";
+        long largeId = noteWithContent(bearer, problemId, "Large", large);
+        long markedId = noteWithContent(bearer, problemId, "Marked", marked);
+
+        String stored = jdbcTemplate.queryForObject("SELECT content FROM notes WHERE id = ?", String.class, largeId);
+        assertTrue(stored.startsWith("\u0001z:") && stored.length() < large.length());
+        for (Map.Entry<Long, String> note : Map.of(largeId, large, markedId, marked).entrySet()) {
+            mockMvc.perform(get("/api/v1/notes/{noteId}/content", note.getKey()).header("Authorization", bearer))
+                    .andExpect(status().isOk())
+                    .andExpect(content().bytes(note.getValue().getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    @Test
+    void contentIsOnlyServedToTheAuthor() throws Exception {
+        mockMvc.perform(get("/api/v1/notes/{noteId}/content", noteId).header("Authorization", bearerForNewUser("other")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void searchIsServedFromTheIndex() throws Exception {
+        mockMvc.perform(get("/api/v1/notes/search").param("q", "approach").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(statements(0));
+    }
+
+    @Test
+    void searchRanksTheAuthorsOwnNotesAndFollowsEditsAndDeletes() throws Exception {
+        String word = uniqueWord();
+        long problemId = createProblem(bearer, uniqueUsername("Searched problem "));
+        long strong = noteWithContent(bearer, problemId, word, word + " " + word + " " + word);
+        long weak = noteWithContent(bearer, problemId, "Other", "mentions " + word + " once among several other words");
+        noteWithContent(bearer, problemId, "Unrelated", "nothing to find here");
+        String otherAuthor = bearerForNewUser("searcher");
+        long othersNote = noteWithContent(otherAuthor, createProblem(otherAuthor, uniqueUsername("Other problem ")),
+                word, word + " " + word + " " + word + " " + word);
+
+        assertEquals(List.of(strong, weak), searched(bearer, word));
+        assertEquals(List.of(othersNote), searched(otherAuthor, word));
+
+        mockMvc.perform(put("/api/v1/problems/{problemId}/notes/{noteId}", problemId, weak)
+                        .header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("approachTitle", "Other", "content", "no longer relevant", "language", "java"))))
+                .andExpect(status().isOk());
+        assertEquals(List.of(strong), searched(bearer, word));
+
+        mockMvc.perform(delete("/api/v1/problems/{problemId}/notes/{noteId}", problemId, strong)
+                        .header("Authorization", bearer))
+                .andExpect(status().isOk());
+        assertEquals(List.of(), searched(bearer, word));
+        assertEquals(List.of(othersNote), searched(otherAuthor, word));
+    }
+
+    @Test
+    void searchResultsCarryShareTokensThroughEdits() throws Exception {
+        String word = uniqueWord();
+        long problemId = createProblem(bearer, uniqueUsername("Shared search problem "));
+        long id = noteWithContent(bearer, problemId, word, word);
+        String url = mockMvc.perform(post("/api/v1/problems/{problemId}/notes/{noteId}/share", problemId, id)
+                        .header("Authorization", bearer))
+                .andReturn().getResponse().getContentAsString();
+        String token = url.substring(url.lastIndexOf('/') + 1);
+        assertEquals(token, searchedNote(word).get("shareToken").asText());
+
+        mockMvc.perform(put("/api/v1/problems/{problemId}/notes/{noteId}", problemId, id)
+                        .header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("approachTitle", "Edited " + word, "content", word, "language", "java"))))
+                .andExpect(status().isOk());
+        JsonNode edited = searchedNote(word);
+        assertEquals("Edited " + word, edited.get("approachTitle").asText());
+        assertEquals(token, edited.get("shareToken").asText());
+    }
+
+    // A single-term word no other test uses: digits mapped to letters so it is not split
+    private static String uniqueWord() {
+        return uniqueUsername("term").chars()
+                .mapToObj(c -> String.valueOf(Character.isDigit(c) ? (char) ('a' + c - '0') : c == '_' ? 'x' : (char) c))
+                .reduce("", String::concat);
+    }
+
+    private JsonNode searchedNote(String q) throws Exception {
+        JsonNode results = objectMapper.readTree(mockMvc.perform(get("/api/v1/notes/search").param("q", q)
+                        .header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertEquals(1, results.size());
+        return results.get(0);
+    }
+
+    private List<Long> searched(String bearer, String q) throws Exception {
+        JsonNode results = objectMapper.readTree(mockMvc.perform(get("/api/v1/notes/search").param("q", q)
+                        .header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(statements(0))
+                .andReturn().getResponse().getContentAsString());
+        List<Long> ids = new ArrayList<>();
+        results.forEach(note -> ids.add(note.get("id").asLong()));
+        return ids;
+    }
+
+    private long noteWithContent(String bearer, long problemId, String approachTitle, String content) throws Exception {
+        String body = mockMvc.perform(post("/api/v1/problems/{problemId}/notes", problemId)
+                        .header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("approachTitle", approachTitle, "content", content, "language", "java"))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+
+    @Test
+    void profileLoadsTheUserOnce() throws Exception {
+        mockMvc.perform(get("/api/v1/notes/me").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(statements(1));
+    }
+
+    @Test
+    void sharedNoteIsOneQueryThenCached() throws Exception {
+        mockMvc.perform(get(shareUrl))
+                .andExpect(status().isOk())
+                .andExpect(statements(1));
+        mockMvc.perform(get(shareUrl))
+                .andExpect(status().isOk())
+                .andExpect(statements(0));
+    }
+
+    @Test
+    void sharedNoteRevalidatesWithEtagAndLastModified() throws Exception {
+        MockHttpServletResponse first = mockMvc.perform(get(shareUrl))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, public"))
+                .andReturn().getResponse();
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        String lastModified = first.getHeader(HttpHeaders.LAST_MODIFIED);
+        assertNotNull(etag);
+        assertNotNull(lastModified);
+
+        mockMvc.perform(get(shareUrl).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""))
+                .andExpect(statements(0));
+        mockMvc.perform(get(shareUrl).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isNotModified())
+                .andExpect(statements(0));
+        mockMvc.perform(get(shareUrl).header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().bytes(first.getContentAsByteArray()));
+    }
+
+    @Test
+    void editingOrDeletingASharedNoteInvalidatesItsCachedBody() throws Exception {
+        String etag = mockMvc.perform(get(shareUrl))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(put("/api/v1/problems/{problemId}/notes/{noteId}", sharedProblemId, noteId)
+                        .header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("approachTitle", "Shared approach", "content", "int answer = 43;", "language", "java"))))
+                .andExpect(status().isOk());
+        MockHttpServletResponse edited = mockMvc.perform(get(shareUrl).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(statements(1))
+                .andReturn().getResponse();
+        assertEquals("int answer = 43;", objectMapper.readTree(edited.getContentAsString()).get("content").asText());
+        assertNotEquals(etag, edited.getHeader(HttpHeaders.ETAG));
+
+        mockMvc.perform(delete("/api/v1/problems/{problemId}/notes/{noteId}", sharedProblemId, noteId)
+                        .header("Authorization", bearer))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(shareUrl).header(HttpHeaders.IF_NONE_MATCH, edited.getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void sharedViewsAreCountedInMemoryAndFlushedInBatches() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get(shareUrl)).andExpect(status().isOk());
+        }
+        assertEquals(3, views());
+        noteViewCounter.flush();
+        assertEquals(3, views());
+        mockMvc.perform(get(shareUrl))
+                .andExpect(status().isOk())
+                .andExpect(statements(0));
+        assertEquals(4, views());
+        noteViewCounter.flush();
+        assertEquals(4, views());
+
+        mockMvc.perform(get("/api/v1/notes/{noteId}/views", noteId).header("Authorization", bearerForNewUser("viewer")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void viewsRecordedWhileFlushingAreNeverLost() throws Exception {
+        int threads = 4;
+        int perThread = 2000;
+        List<Thread> viewers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread viewer = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    noteViewCounter.record(noteId);
+                    if (i % 100 == 0) {
+                        Thread.yield();
+                    }
+                }
+            });
+            viewers.add(viewer);
+            viewer.start();
+        }
+        // Flushing in a loop keeps dropping the entry whenever it is idle, racing with the viewers
+        while (viewers.stream().anyMatch(Thread::isAlive)) {
+            noteViewCounter.flush();
+        }
+        for (Thread viewer : viewers) {
+            viewer.join();
+        }
+        noteViewCounter.flush();
+        assertEquals(0, noteViewCounter.pendingViews(noteId));
+        assertEquals((long) threads * perThread, views());
+    }
+
+    private long views() throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get("/api/v1/notes/{noteId}/views", noteId)
+                        .header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(statements(1))
+                .andReturn().getResponse().getContentAsString()).get("views").asLong();
+    }
+}
@@ -0,0 +1,97 @@
+package com.syntexa.api.controller;
+
+import com.syntexa.api.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Password hashing runs on one thread with room for one queued call; the password "block" holds
+ * that thread until the test releases it, so the pool can be filled on demand. Runs on a database
+ * of its own, since its context recreates the schema.
+ */
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:hashing_overload;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+class PasswordHashingOverloadTest extends ControllerIntegrationTest {
+
+    private static final CountDownLatch STARTED = new CountDownLatch(1);
+    private static final CountDownLatch RELEASE = new CountDownLatch(1);
+    private static final SimpleMeterRegistry METERS = new SimpleMeterRegistry();
+
+    @TestConfiguration
+    static class SaturableEncoderConfig {
+        @Bean
+        @Primary
+        BoundedPasswordEncoder saturablePasswordEncoder() {
+            PasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+            PasswordEncoder blocking = new PasswordEncoder() {
+                @Override
+                public String encode(CharSequence rawPassword) {
+                    if ("block".contentEquals(rawPassword)) {
+                        STARTED.countDown();
+                        try {
+                            RELEASE.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    return bcrypt.encode(rawPassword);
+                }
+
+                @Override
+                public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                    return bcrypt.matches(rawPassword, encodedPassword);
+                }
+            };
+            return new BoundedPasswordEncoder(blocking, 1, 1, METERS);
+        }
+    }
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @AfterEach
+    void release() {
+        RELEASE.countDown();
+    }
+
+    @Test
+    void signupIsRefusedWithRetryAfterWhileHashingIsSaturated() throws Exception {
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("block"));
+        assertTrue(STARTED.await(10, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("queued"));
+        while (METERS.get("auth.password.queue.depth").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        String username = uniqueUsername("overloaded");
+        mockMvc.perform(post("/api/v1/auth/signup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("username", username, "email", username + "@example.com", "password", "password123"))))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+
+        RELEASE.countDown();
+        running.get(10, TimeUnit.SECONDS);
+        queued.get(10, TimeUnit.SECONDS);
+        signUp(username, "password123");
+    }
+}
@@ -0,0 +1,252 @@
+package com.syntexa.api.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.syntexa.api.model.ChangeStamps;
+import com.syntexa.api.service.ProblemCatalog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ProblemControllerTest extends ControllerIntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProblemCatalog problemCatalog;
+
+    private String bearer;
+    private long problemId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        bearer = bearerForNewUser("problems");
+        problemId = createProblem(bearer, uniqueUsername("Problem "));
+        for (int i = 0; i < 5; i++) {
+            createProblem(bearer, uniqueUsername("Listed problem "));
+        }
+    }
+
+    @Test
+    void listingIsServedFromTheCatalogWithoutQueries() throws Exception {
+        mockMvc.perform(get("/api/v1/problems").param("limit", "3").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(statements(0));
+        mockMvc.perform(get("/api/v1/problems").param("limit", "200").param("sort", "title").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(statements(0));
+    }
+
+    @Test
+    void streamedPagesFollowTheCursorToTheEnd() throws Exception {
+        String prefix = uniqueUsername("Paged ");
+        for (int i = 0; i < 5; i++) {
+            createProblem(bearer, prefix + " " + i);
+        }
+        List<String> titles = new ArrayList<>();
+        String cursor = null;
+        do {
+            JsonNode page = objectMapper.readTree(mockMvc.perform(get("/api/v1/problems")
+                            .param("limit", "2").param("sort", "title").param("q", prefix)
+                            .param("cursor", cursor == null ? "" : cursor)
+                            .header("Authorization", bearer))
+                    .andExpect(status().isOk())
+                    .andExpect(statements(0))
+                    .andReturn().getResponse().getContentAsString());
+            page.get("items").forEach(item -> titles.add(item.get("title").asText()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            assertEquals(cursor != null, page.get("hasMore").asBoolean());
+        } while (cursor != null);
+        assertEquals(List.of(prefix + " 0", prefix + " 1", prefix + " 2", prefix + " 3", prefix + " 4"), titles);
+    }
+
+    @Test
+    void suggestionsMatchTitleAndWordPrefixesIgnoringCaseAndPunctuation() throws Exception {
+        String token = uniqueUsername("Suggest");
+        String twoSum = token + ": Two-Sum II";
+        String threeSum = token + " Three Sum";
+        String longest = "Longest " + token + " Path";
+        createProblem(bearer, twoSum);
+        createProblem(bearer, threeSum);
+        createProblem(bearer, longest);
+
+        assertEquals(List.of(twoSum), suggested(token.toUpperCase().replace('_', '.') + " two sum", null));
+        // Titles starting with the query come before titles with a later word starting with it
+        assertEquals(List.of(threeSum, twoSum, longest), suggested(token.toLowerCase(), null));
+        assertEquals(List.of(threeSum), suggested(token, 1));
+        assertEquals(List.of(), suggested("  --  ", null));
+    }
+
+    private List<String> suggested(String q, Integer limit) throws Exception {
+        JsonNode suggestions = objectMapper.readTree(mockMvc.perform(get("/api/v1/problems/suggest").param("q", q)
+                        .param("limit", limit == null ? "" : limit.toString())
+                        .header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(statements(0))
+                .andReturn().getResponse().getContentAsString());
+        List<String> titles = new ArrayList<>();
+        suggestions.forEach(item -> titles.add(item.get("title").asText()));
+        return titles;
+    }
+
+    @Test
+    void noteStatisticsFollowNoteWrites() throws Exception {
+        String title = uniqueUsername("Counted ");
+        long countedId = createProblem(bearer, title);
+        long javaNote = createNote(bearer, countedId, "First").get("id").asLong();
+        createNote(bearer, countedId, "Second");
+        long thirdNote = createNote(bearer, countedId, "Third").get("id").asLong();
+        mockMvc.perform(put("/api/v1/problems/{problemId}/notes/{noteId}", countedId, javaNote)
+                        .header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("approachTitle", "First", "content", "print(42)", "language", "Python"))))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/v1/problems/{problemId}/notes/{noteId}", countedId, thirdNote)
+                        .header("Authorization", bearer))
+                .andExpect(status().isOk());
+
+        JsonNode listed = objectMapper.readTree(mockMvc.perform(get("/api/v1/problems").param("q", title)
+                        .header("Authorization", bearer))
+                .andExpect(statements(0))
+                .andReturn().getResponse().getContentAsString()).get("items").get(0);
+        assertEquals(2, listed.get("noteCount").asInt());
+        assertEquals(Map.of("java", 1, "python", 1), objectMapper.convertValue(listed.get("noteLanguages"), Map.class));
+
+        JsonNode detail = objectMapper.readTree(mockMvc.perform(get("/api/v1/problems/{id}", countedId)
+                        .header("Authorization", bearer))
+                .andReturn().getResponse().getContentAsString());
+        assertEquals(2, detail.get("noteCount").asInt());
+        assertEquals(Map.of("java", 1, "python", 1), objectMapper.convertValue(detail.get("noteLanguages"), Map.class));
+    }
+
+    @Test
+    void detailQueriesOnlyTheNotes() throws Exception {
+        long noteId = createNote(bearer, problemId, "Listed note").get("id").asLong();
+        JsonNode detail = objectMapper.readTree(mockMvc.perform(get("/api/v1/problems/{id}", problemId)
+                        .header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(statements(1))
+                .andReturn().getResponse().getContentAsString());
+        assertEquals(problemId, detail.get("id").asLong());
+        assertEquals(noteId, detail.get("notes").get(0).get("id").asLong());
+        assertEquals(null, detail.get("notes").get(0).get("content"));
+
+        mockMvc.perform(get("/api/v1/problems/{id}", Long.MAX_VALUE).header("Authorization", bearer))
+                .andExpect(statements(1));
+    }
+
+    @Test
+    void detailLoadsProblemsTheCatalogDoesNotHoldYet() throws Exception {
+        // Written behind the catalog's back, as another instance would
+        long id = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) + 1000 FROM problems", Long.class);
+        String title = uniqueUsername("Written elsewhere ");
+        jdbcTemplate.update("INSERT INTO problems (id, title, description, note_count) VALUES (?, ?, 'd', 0)", id, title);
+
+        JsonNode detail = objectMapper.readTree(mockMvc.perform(get("/api/v1/problems/{id}", id)
+                        .header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(statements(2))
+                .andReturn().getResponse().getContentAsString());
+        assertEquals(title, detail.get("title").asText());
+
+        // Now held by the catalog: only the notes are queried, and listings include it
+        mockMvc.perform(get("/api/v1/problems/{id}", id).header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(statements(1));
+        JsonNode page = objectMapper.readTree(mockMvc.perform(get("/api/v1/problems")
+                        .param("q", title)
+                        .header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(statements(0))
+                .andReturn().getResponse().getContentAsString());
+        assertEquals(id, page.get("items").get(0).get("id").asLong());
+    }
+
+    @Test
+    void noteWritesUpdateStatisticsWithoutCopyingTheCatalog() throws Exception {
+        ProblemCatalog.Snapshot before = problemCatalog.snapshot();
+        createNote(bearer, problemId, "Counted note");
+
+        assertSame(before, problemCatalog.snapshot());
+        assertEquals(1, listed(problemId).get("noteCount").asInt());
+    }
+
+    @Test
+    void refreshPicksUpProblemsChangedByOtherInstances() throws Exception {
+        // Written behind the catalog's back, as another instance would
+        long added = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) + 1000 FROM problems", Long.class);
+        jdbcTemplate.update("INSERT INTO problems (id, title, description, note_count, change_stamp) VALUES (?, ?, 'd', 0, ?)",
+                added, uniqueUsername("Added elsewhere "), ChangeStamps.next());
+        jdbcTemplate.update("UPDATE problems SET note_count = 42, change_stamp = ? WHERE id = ?", ChangeStamps.next(), problemId);
+
+        problemCatalog.refresh();
+        assertEquals(added, listed(added).get("id").asLong());
+        assertEquals(42, listed(problemId).get("noteCount").asInt());
+    }
+
+    @Test
+    void concurrentSignupsAllCountTowardTheStarterProblem() throws Exception {
+        signUp(uniqueUsername("starter"), "password123");
+        List<CompletableFuture<Void>> signups = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            signups.add(CompletableFuture.runAsync(() -> {
+                try {
+                    signUp(uniqueUsername("starter"), "password123");
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        }
+        CompletableFuture.allOf(signups.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+        // Onboarding is asynchronous: wait for the starter notes, then check none of their counts were lost
+        String starterNotes = "SELECT COUNT(*) FROM notes n JOIN problems p ON p.id = n.problem_id " +
+                "WHERE p.title = 'Welcome to Syntexa: Your Coding Notes Hub'";
+        String usersWithoutStarterNote = "SELECT COUNT(*) FROM app_users u WHERE u.username LIKE 'starter%' AND NOT EXISTS " +
+                "(SELECT 1 FROM notes n WHERE n.share_token = CONCAT('starter-note-', u.id))";
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (jdbcTemplate.queryForObject(usersWithoutStarterNote, Long.class) > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, jdbcTemplate.queryForObject(usersWithoutStarterNote, Long.class));
+        assertEquals(jdbcTemplate.queryForObject(starterNotes, Integer.class),
+                jdbcTemplate.queryForObject("SELECT note_count FROM problems WHERE title = 'Welcome to Syntexa: Your Coding Notes Hub'",
+                        Integer.class));
+    }
+
+    // The problem's listing item, found by its title
+    private JsonNode listed(long id) throws Exception {
+        String title = jdbcTemplate.queryForObject("SELECT title FROM problems WHERE id = ?", String.class, id);
+        return objectMapper.readTree(mockMvc.perform(get("/api/v1/problems").param("q", title)
+                        .header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(statements(0))
+                .andReturn().getResponse().getContentAsString()).get("items").get(0);
+    }
+
+    @Test
+    void createInsertsOnce() throws Exception {
+        mockMvc.perform(post("/api/v1/problems")
+                        .header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("title", uniqueUsername("Created "), "description", "d"))))
+                .andExpect(status().isCreated())
+                .andExpect(statementsAtMost(2));
+    }
+}
@@ -0,0 +1,150 @@
+package com.syntexa.api.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ProblemNoteControllerTest extends ControllerIntegrationTest {
+
+    private String bearer;
+    private long problemId;
+    private long noteId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        bearer = bearerForNewUser("notes");
+        problemId = createProblem(bearer, uniqueUsername("Noted problem "));
+        noteId = createNote(bearer, problemId, "Two pointers").get("id").asLong();
+    }
+
+    @Test
+    void createLoadsTheProblemAndInserts() throws Exception {
+        mockMvc.perform(post("/api/v1/problems/{problemId}/notes", problemId)
+                        .header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("approachTitle", "Hash map", "content", "return map;", "language", "java"))))
+                .andExpect(status().isCreated())
+                .andExpect(statementsAtMost(3));
+    }
+
+    @Test
+    void batchCreateUsesOneTransactionAndBatchedInserts() throws Exception {
+        List<Map<String, String>> notes = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            notes.add(Map.of("approachTitle", "Batched approach " + i, "content", "return " + i + ";", "language", "java"));
+        }
+        mockMvc.perform(post("/api/v1/problems/{problemId}/notes/batch", problemId)
+                        .header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("notes", notes))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.length()").value(120))
+                // Lookup, up to 4 sequence calls and 3 insert batches, rather than 120 inserts
+                .andExpect(statementsAtMost(8));
+    }
+
+    @Test
+    void batchCreateValidatesEveryNote() throws Exception {
+        mockMvc.perform(post("/api/v1/problems/{problemId}/notes/batch", problemId)
+                        .header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("notes", List.of(Map.of("approachTitle", "No content"))))))
+                .andExpect(status().isBadRequest())
+                .andExpect(statements(0));
+    }
+
+    @Test
+    void updateIsOneConditionalStatement() throws Exception {
+        mockMvc.perform(put("/api/v1/problems/{problemId}/notes/{noteId}", problemId, noteId)
+                        .header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("approachTitle", "Two pointers, revised", "content", "i++; j--;", "language", "java"))))
+                .andExpect(status().isOk())
+                .andExpect(statements(1));
+    }
+
+    @Test
+    void ifMatchRejectsWritesBasedOnAStaleVersion() throws Exception {
+        String etag = mockMvc.perform(get("/api/v1/notes/{noteId}/content", noteId).header("Authorization", bearer))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(put("/api/v1/problems/{problemId}/notes/{noteId}", problemId, noteId)
+                        .header("Authorization", bearer)
+                        .header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("approachTitle", "First edit", "content", "a", "language", "java"))))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(statements(1));
+        mockMvc.perform(put("/api/v1/problems/{problemId}/notes/{noteId}", problemId, noteId)
+                        .header("Authorization", bearer)
+                        .header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("approachTitle", "Lost edit", "content", "b", "language", "java"))))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/api/v1/problems/{problemId}/notes/{noteId}", problemId, noteId)
+                        .header("Authorization", bearer)
+                        .header("If-Match", etag))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/api/v1/problems/{problemId}/notes/{noteId}", problemId, noteId)
+                        .header("Authorization", bearer)
+                        .header("If-Match", "\"1\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void failedConditionalWritesReportWhy() throws Exception {
+        String other = bearerForNewUser("intruder");
+        // The UPDATE matches no row, then one read tells not-found from forbidden
+        mockMvc.perform(put("/api/v1/problems/{problemId}/notes/{noteId}", problemId, noteId)
+                        .header("Authorization", other)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("approachTitle", "Hijacked", "content", "x", "language", "java"))))
+                .andExpect(status().isForbidden())
+                .andExpect(statements(2));
+        mockMvc.perform(delete("/api/v1/problems/{problemId}/notes/{noteId}", problemId, noteId)
+                        .header("Authorization", other))
+                .andExpect(status().isForbidden())
+                .andExpect(statements(1));
+        mockMvc.perform(put("/api/v1/problems/{problemId}/notes/{noteId}", problemId, Long.MAX_VALUE)
+                        .header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("approachTitle", "Missing", "content", "x", "language", "java"))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void deleteLoadsChecksOwnershipAndDeletes() throws Exception {
+        mockMvc.perform(delete("/api/v1/problems/{problemId}/notes/{noteId}", problemId, noteId)
+                        .header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(statements(4));
+    }
+
+    @Test
+    void shareStoresTheTokenWithOneStatement() throws Exception {
+        String url = mockMvc.perform(post("/api/v1/problems/{problemId}/notes/{noteId}/share", problemId, noteId)
+                        .header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(statements(1))
+                .andReturn().getResponse().getContentAsString();
+        // Sharing again returns the same link
+        mockMvc.perform(post("/api/v1/problems/{problemId}/notes/{noteId}/share", problemId, noteId)
+                        .header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(content().string(url))
+                .andExpect(statements(2));
+    }
+}
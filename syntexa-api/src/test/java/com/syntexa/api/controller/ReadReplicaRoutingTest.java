@@ -0,0 +1,141 @@
+package com.syntexa.api.controller;
+
+import com.syntexa.api.config.ReadWriteRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Primary and replica are two separate in-memory H2 databases. Nothing replicates between them
+ * until {@link #replicate()} copies the primary over, so a read shows which database served it.
+ */
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "app.datasource.replica.url=jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "app.datasource.replica.connection-timeout=250",
+        "app.datasource.replica.read-your-writes-ms=60000"
+})
+class ReadReplicaRoutingTest extends ControllerIntegrationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primary;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replica;
+
+    private String writer;
+    private String reader;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        writer = bearerForNewUser("writer");
+        reader = bearerForNewUser("reader");
+        replicate();
+    }
+
+    // The problem itself comes from the in-memory catalog; its notes are read from the database
+    @Test
+    void readOnlyRequestsAreServedByTheReplica() throws Exception {
+        long problemId = createProblem(writer, uniqueUsername("Replicated "));
+        createNote(writer, problemId, "Replicated note");
+
+        assertEquals(0, listedNotes(reader, problemId).size());
+        replicate();
+        assertEquals(List.of("Replicated note"), listedNotes(reader, problemId));
+    }
+
+    @Test
+    void writersReadTheirOwnWritesFromThePrimary() throws Exception {
+        long problemId = createProblem(writer, uniqueUsername("Own write "));
+        createNote(writer, problemId, "Own note");
+
+        assertEquals(List.of("Own note"), listedNotes(writer, problemId));
+    }
+
+    @Test
+    @DirtiesContext
+    void readsFallBackToThePrimaryWhenTheReplicaIsDown() throws Exception {
+        long problemId = createProblem(writer, uniqueUsername("Unreplicated "));
+        createNote(writer, problemId, "Unreplicated note");
+        replica.unwrap(HikariDataSource.class).close();
+
+        assertEquals(List.of("Unreplicated note"), listedNotes(reader, problemId));
+        assertTrue(dataSource.unwrap(ReadWriteRoutingDataSource.class).isReplicaDown());
+        assertEquals(List.of("Unreplicated note"), listedNotes(reader, problemId));
+    }
+
+    // Anonymous viewers are never pinned, yet the cached rendering must not come from the replica
+    @Test
+    void sharedNoteRenderingsAreFilledFromThePrimary() throws Exception {
+        long problemId = createProblem(writer, uniqueUsername("Shared "));
+        long noteId = createNote(writer, problemId, "Shared note").get("id").asLong();
+        String shareUrl = mockMvc.perform(post("/api/v1/problems/{problemId}/notes/{noteId}/share", problemId, noteId)
+                        .header("Authorization", writer))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals("Shared note", sharedTitle(shareUrl));
+        mockMvc.perform(put("/api/v1/problems/{problemId}/notes/{noteId}", problemId, noteId)
+                        .header("Authorization", writer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("approachTitle", "Edited note", "content", "edited", "language", "java"))))
+                .andExpect(status().isOk());
+        assertEquals("Edited note", sharedTitle(shareUrl));
+    }
+
+    @Test
+    void problemsMissingFromTheCatalogAreLoadedFromThePrimary() throws Exception {
+        JdbcTemplate primaryJdbc = new JdbcTemplate(primary);
+        long id = primaryJdbc.queryForObject("SELECT COALESCE(MAX(id), 0) + 1000 FROM problems", Long.class);
+        String title = uniqueUsername("Not replicated ");
+        primaryJdbc.update("INSERT INTO problems (id, title, description, note_count) VALUES (?, ?, 'd', 0)", id, title);
+
+        String body = mockMvc.perform(get("/api/v1/problems/{id}", id).header("Authorization", reader))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(title, objectMapper.readTree(body).get("title").asText());
+    }
+
+    private String sharedTitle(String shareUrl) throws Exception {
+        String body = mockMvc.perform(get(shareUrl))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("approachTitle").asText();
+    }
+
+    private List<String> listedNotes(String bearer, long problemId) throws Exception {
+        String body = mockMvc.perform(get("/api/v1/problems/{id}", problemId).header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("notes").findValuesAsText("approachTitle");
+    }
+
+    // Stands in for replication: replaces the replica's contents with a copy of the primary
+    private void replicate() {
+        List<String> script = new JdbcTemplate(primary).queryForList("SCRIPT", String.class);
+        JdbcTemplate replicaJdbc = new JdbcTemplate(replica);
+        replicaJdbc.execute("DROP ALL OBJECTS");
+        script.forEach(replicaJdbc::execute);
+    }
+}
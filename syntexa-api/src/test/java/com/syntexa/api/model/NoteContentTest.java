@@ -0,0 +1,121 @@
+package com.syntexa.api.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NoteContentTest {
+
+    private static final int MIN_BYTES = 64;
+
+    @Test
+    void shortTextIsStoredAsIs() {
+        String text = "int answer = 42;";
+        assertEquals(text, NoteContent.encode(text, MIN_BYTES));
+        assertRoundTrips(text);
+    }
+
+    @Test
+    void largeCompressibleTextIsStoredCompressed() {
+        String text = "for (int i = 0; i < n; i++) { sum += a[i]; }\n".repeat(50);
+        String stored = NoteContent.encode(text, MIN_BYTES);
+        assertTrue(stored.startsWith(NoteContent.COMPRESSED_PREFIX));
+        assertTrue(stored.length() < text.length());
+        assertTrue(NoteContent.ofStored(stored).isCompressed());
+        assertRoundTrips(text);
+    }
+
+    @Test
+    void multiByteTextIsMeasuredAndRestoredAsUtf8() {
+        String text = "Сумма подмассива — 最大子数组 ✓ ".repeat(40);
+        assertTrue(NoteContent.encode(text, MIN_BYTES).startsWith(NoteContent.COMPRESSED_PREFIX));
+        assertRoundTrips(text);
+        // Under the threshold in characters but not in bytes
+        String justOver = "ж".repeat(MIN_BYTES / 2);
+        assertEquals(MIN_BYTES, justOver.getBytes(StandardCharsets.UTF_8).length);
+        assertRoundTrips(justOver);
+    }
+
+    @Test
+    void textThatDoesNotShrinkIsStoredPlain() {
+        Random random = new Random(7);
+        StringBuilder noise = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            noise.append((char) ('!' + random.nextInt(90)));
+        }
+        String text = noise.toString();
+        assertEquals(text, NoteContent.encode(text, MIN_BYTES));
+        assertRoundTrips(text);
+    }
+
+    @Test
+    void compressionCanBeDisabled() {
+        String text = "a".repeat(10_000);
+        assertEquals(text, NoteContent.encode(text, 0));
+        assertRoundTrips(text, 0);
+    }
+
+    @Test
+    void textStartingWithTheMarkerIsEscaped() {
+        for (String text : new String[] {
+                "\u0001", "\u0001plain", NoteContent.COMPRESSED_PREFIX + "not base64!", NoteContent.ESCAPED_PREFIX + "twice"}) {
+            String stored = NoteContent.encode(text, MIN_BYTES);
+            assertEquals(NoteContent.ESCAPED_PREFIX + text, stored);
+            assertFalse(NoteContent.ofStored(stored).isCompressed());
+            assertRoundTrips(text);
+        }
+        // Long enough to compress: the compressed form carries the marker inside the payload
+        String longMarked = "\u0001" + "x".repeat(500);
+        assertTrue(NoteContent.encode(longMarked, MIN_BYTES).startsWith(NoteContent.COMPRESSED_PREFIX));
+        assertRoundTrips(longMarked);
+    }
+
+    @Test
+    void legacyPlainRowsReadUnchangedAndAreWrittenBackAsRead() {
+        String legacy = "x".repeat(10_000);
+        NoteContent loaded = NoteContent.ofStored(legacy);
+        assertEquals(legacy, loaded.getText());
+        assertFalse(loaded.isCompressed());
+        assertEquals(legacy, loaded.toStored(MIN_BYTES));
+        // Re-saved as new content, the same text is compressed
+        assertTrue(NoteContent.ofText(legacy).toStored(MIN_BYTES).startsWith(NoteContent.COMPRESSED_PREFIX));
+    }
+
+    @Test
+    void loadedAndNewContentCompareByText() {
+        String text = "y".repeat(1000);
+        NoteContent loaded = NoteContent.ofStored(NoteContent.encode(text, MIN_BYTES));
+        assertEquals(NoteContent.ofText(text), loaded);
+        assertEquals(NoteContent.ofText(text).hashCode(), loaded.hashCode());
+        assertNotEquals(NoteContent.ofText(text + "!"), loaded);
+    }
+
+    @Test
+    void corruptCompressedContentFailsLoudly() {
+        String corrupt = NoteContent.COMPRESSED_PREFIX + "AAAA";
+        assertThrows(RuntimeException.class, () -> NoteContent.ofStored(corrupt).getText());
+    }
+
+    @Test
+    void nullStaysNull() {
+        assertEquals(null, NoteContent.ofText(null));
+        assertEquals(null, NoteContent.ofStored(null));
+    }
+
+    private static void assertRoundTrips(String text) {
+        assertRoundTrips(text, MIN_BYTES);
+    }
+
+    private static void assertRoundTrips(String text, int minBytes) {
+        String stored = NoteContent.ofText(text).toStored(minBytes);
+        assertEquals(text, NoteContent.decode(stored));
+        assertEquals(text, NoteContent.ofStored(stored).getText());
+    }
+}
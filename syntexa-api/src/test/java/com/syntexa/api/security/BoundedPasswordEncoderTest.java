@@ -0,0 +1,92 @@
+package com.syntexa.api.security;
+
+import com.syntexa.api.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // Encodes by reversing; "block" holds its pool thread until released
+    private final PasswordEncoder delegate = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            if ("block".contentEquals(rawPassword)) {
+                started.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if ("fail".contentEquals(rawPassword)) {
+                throw new IllegalArgumentException("Unusable password");
+            }
+            return new StringBuilder(rawPassword).reverse().toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return encodedPassword.startsWith("old:");
+        }
+    };
+    private final BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(delegate, 1, 1, meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.destroy();
+    }
+
+    @Test
+    void delegatesEncodeMatchesAndUpgrades() {
+        assertEquals("terces", encoder.encode("secret"));
+        assertTrue(encoder.matches("secret", "terces"));
+        assertFalse(encoder.matches("secret", "secret"));
+        assertTrue(encoder.upgradeEncoding("old:hash"));
+        assertThrows(IllegalArgumentException.class, () -> encoder.encode("fail"));
+        assertEquals(2, meterRegistry.get("auth.password.hash").tag("operation", "encode").timer().count());
+    }
+
+    @Test
+    void rejectsWorkOnceThePoolAndItsQueueAreFull() throws Exception {
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("block"));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("queued"));
+        while (meterRegistry.get("auth.password.queue.depth").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(ServiceOverloadedException.class, () -> encoder.encode("rejected"));
+        assertEquals(1, meterRegistry.get("auth.password.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("kcolb", running.get(10, TimeUnit.SECONDS));
+        assertEquals("deueuq", queued.get(10, TimeUnit.SECONDS));
+        assertEquals("detcejer", encoder.encode("rejected"));
+    }
+
+    @Test
+    void refusesWorkAfterShutdown() {
+        encoder.destroy();
+        assertThrows(ServiceOverloadedException.class, () -> encoder.encode("secret"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.syntexa.api.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void admitsTheBurstThenRefillsAtTheSustainedRate() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(4, 1000, 60_000, 0);
+        TokenBucketRateLimiter.Limit limit = new TokenBucketRateLimiter.Limit(60, 3);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("client", limit, 0));
+        }
+        assertEquals(SECOND, limiter.tryAcquire("client", limit, 0));
+        assertEquals(0, limiter.tryAcquire("other", limit, 0));
+        assertEquals(0, limiter.tryAcquire("client", limit, SECOND));
+        assertTrue(limiter.tryAcquire("client", limit, SECOND) > 0);
+    }
+
+    @Test
+    void concurrentCallersNeverExceedTheBurst() throws Exception {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(4, 1000, 60_000, 0);
+        TokenBucketRateLimiter.Limit limit = new TokenBucketRateLimiter.Limit(60, 100);
+        AtomicInteger admitted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            executor.execute(() -> {
+                if (limiter.tryAcquire("client", limit, 0) == 0) {
+                    admitted.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(100, admitted.get());
+    }
+
+    @Test
+    void memoryStaysBoundedAndIdleClientsAreEvicted() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(4, 100, 60_000, 0);
+        TokenBucketRateLimiter.Limit limit = new TokenBucketRateLimiter.Limit(60, 10);
+        for (int i = 0; i < 10_000; i++) {
+            limiter.tryAcquire("client-" + i, limit, 0);
+        }
+        assertTrue(limiter.size() <= 100);
+
+        limiter.tryAcquire("late", limit, 120 * SECOND);
+        assertEquals(1, limiter.size());
+    }
+
+    @Test
+    void aFloodOfNewKeysDoesNotThrottleOtherNewClients() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 10, 60_000, 0);
+        TokenBucketRateLimiter.Limit limit = new TokenBucketRateLimiter.Limit(60, 1);
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(0, limiter.tryAcquire("rotated-" + i, limit, 0));
+        }
+        assertEquals(10, limiter.size());
+
+        assertEquals(0, limiter.tryAcquire("newcomer", limit, 0));
+        assertEquals(SECOND, limiter.tryAcquire("newcomer", limit, 0));
+    }
+}
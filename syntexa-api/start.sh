@@ -8,7 +8,7 @@ echo "Starting Syntexa API..."
 cd /opt/render/project/src/syntexa-api
 
 # Find the JAR file
-JAR_FILE=$(find target -name "*.jar" -not -name "*sources*" -not -name "*javadoc*" | head -1)
+JAR_FILE=$(find target -name "*.jar" -not -name "*sources*" -not -name "*javadoc*" -not -name "*-plain.jar" | head -1)
 
 if [ -z "$JAR_FILE" ]; then
     echo "Error: No JAR file found in target directory"
@@ -0,0 +1,80 @@
+package com.syntexa.benchmarks;
+
+import com.syntexa.api.model.Note;
+import com.syntexa.api.model.Problem;
+import com.syntexa.api.model.User;
+import com.syntexa.api.security.JwtService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Builds API objects outside a Spring context, with realistic field sizes.
+ */
+final class BenchmarkFixtures {
+
+    // Same shape as a production secret: Base64 of a 256-bit-plus HMAC key
+    static final String JWT_SECRET = "c3ludGV4YS1iZW5jaG1hcmstc2lnbmluZy1rZXktMDEyMzQ1Njc4OWFiY2RlZg==";
+    static final int JWT_EXPIRATION_MS = 2 * 60 * 60 * 1000;
+
+    private BenchmarkFixtures() {}
+
+    static JwtService jwtService(int verifiedCacheSize) {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "jwtSecret", JWT_SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpirationMs", JWT_EXPIRATION_MS);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheSize", verifiedCacheSize);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+        return jwtService;
+    }
+
+    static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        user.setEmail("user" + id + "@example.com");
+        user.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3xBv8f0q1Z2l6sMZ1TxGq3m");
+        return user;
+    }
+
+    static Problem problem(long id, int descriptionChars) {
+        Problem problem = new Problem();
+        problem.setId(id);
+        problem.setTitle("Problem " + id + ": Longest Substring Without Repeating Characters");
+        problem.setDescription(text(descriptionChars));
+        return problem;
+    }
+
+    static Note note(long id, Problem problem, User author, int contentChars) {
+        Note note = new Note();
+        note.setId(id);
+        note.setApproachTitle("Sliding window with last-seen index map #" + id);
+        note.setContent(code(contentChars));
+        note.setLanguage("java");
+        note.setShareToken(id % 10 == 0 ? "starter-note-" + author.getId() : null);
+        note.setProblem(problem);
+        note.setAuthor(author);
+        return note;
+    }
+
+    static String text(int chars) {
+        String sentence = "Given a string s, find the length of the longest substring without repeating characters. ";
+        return repeat(sentence, chars);
+    }
+
+    static String code(int chars) {
+        String snippet = "    for (int right = 0; right < s.length(); right++) {\n"
+                + "        Integer last = lastSeen.put(s.charAt(right), right);\n"
+                + "        if (last != null && last >= left) left = last + 1;\n"
+                + "        best = Math.max(best, right - left + 1);\n"
+                + "    }\n";
+        return repeat(snippet, chars);
+    }
+
+    private static String repeat(String unit, int chars) {
+        StringBuilder sb = new StringBuilder(chars);
+        while (sb.length() < chars) {
+            sb.append(unit);
+        }
+        sb.setLength(chars);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,74 @@
+package com.syntexa.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.syntexa.api.dto.NoteDTO;
+import com.syntexa.api.model.Note;
+import com.syntexa.api.model.Problem;
+import com.syntexa.api.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the API's response payloads, using an ObjectMapper configured the
+ * way Spring Boot configures the one behind the REST controllers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    // Note body size in characters: a short snippet, a typical solution, a pasted log dump
+    @Param({"512", "8192", "131072"})
+    public int contentChars;
+
+    private ObjectMapper objectMapper;
+    private Note note;
+    private Problem problem;
+    private List<NoteDTO> notePage;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        User author = BenchmarkFixtures.user(7L);
+        problem = BenchmarkFixtures.problem(3L, 2_000);
+        note = BenchmarkFixtures.note(11L, problem, author, contentChars);
+        notePage = new ArrayList<>();
+        for (long id = 1; id <= 50; id++) {
+            Note n = BenchmarkFixtures.note(id, problem, author, contentChars);
+            notePage.add(new NoteDTO(n.getId(), n.getApproachTitle(), n.getContent(), n.getLanguage(),
+                    problem.getId(), problem.getTitle(), n.getShareToken()));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeNote() throws Exception {
+        return objectMapper.writeValueAsBytes(note);
+    }
+
+    @Benchmark
+    public byte[] serializeProblem() throws Exception {
+        return objectMapper.writeValueAsBytes(problem);
+    }
+
+    @Benchmark
+    public byte[] serializeNoteDtoPage() throws Exception {
+        return objectMapper.writeValueAsBytes(notePage);
+    }
+}
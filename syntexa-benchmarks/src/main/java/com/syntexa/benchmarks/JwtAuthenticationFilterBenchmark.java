@@ -0,0 +1,75 @@
+package com.syntexa.benchmarks;
+
+import com.syntexa.api.model.User;
+import com.syntexa.api.security.JwtAuthenticationFilter;
+import com.syntexa.api.security.JwtService;
+import com.syntexa.api.service.UserService;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The JWT filter end to end for one bearer request. The user lookup is an in-memory stub,
+ * so the numbers show filter overhead without database latency.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"false", "true"})
+    public boolean statelessPrincipal;
+
+    @Param({"0", "10000"})
+    public int verifiedCacheSize;
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private FilterChain chain;
+
+    @Setup
+    public void setUp() {
+        JwtService jwtService = BenchmarkFixtures.jwtService(verifiedCacheSize);
+        User user = BenchmarkFixtures.user(42L);
+        UserService userLookup = new UserService(null, null, null) {
+            @Override
+            public UserDetails loadUserByUsername(String username) {
+                return user;
+            }
+        };
+        filter = new JwtAuthenticationFilter(jwtService, userLookup, statelessPrincipal);
+        request = new MockHttpServletRequest("GET", "/api/v1/notes/mine");
+        request.addHeader("Authorization", "Bearer " + jwtService.generateToken(user));
+        response = new MockHttpServletResponse();
+        chain = (req, res) -> { };
+    }
+
+    @Benchmark
+    public Object authenticateBearerRequest() throws Exception {
+        filter.doFilter(request, response, chain);
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        // Reset per-request state so the next invocation authenticates from scratch
+        SecurityContextHolder.clearContext();
+        request.clearAttributes();
+        return authentication;
+    }
+}
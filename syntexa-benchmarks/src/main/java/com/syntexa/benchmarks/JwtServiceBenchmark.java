@@ -0,0 +1,60 @@
+package com.syntexa.benchmarks;
+
+import com.syntexa.api.model.User;
+import com.syntexa.api.security.JwtService;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issuing and verification, with and without the verified-token cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    @Param({"0", "10000"})
+    public int verifiedCacheSize;
+
+    private JwtService jwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = BenchmarkFixtures.jwtService(verifiedCacheSize);
+        user = BenchmarkFixtures.user(42L);
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public Claims verifyToken() {
+        return jwtService.verifyToken(token);
+    }
+
+    @Benchmark
+    public boolean verifyAndValidate() {
+        Claims claims = jwtService.verifyToken(token);
+        return jwtService.isTokenValid(claims, user);
+    }
+}
@@ -0,0 +1,106 @@
+package com.syntexa.benchmarks;
+
+import com.syntexa.api.model.NoteContent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU cost of compressing note bodies on write and decompressing them on read, for code,
+ * log dumps and prose. Run {@link #main} to print the stored size of each sample instead.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NoteContentCompressionBenchmark {
+
+    // Same default as app.notes.compression.min-bytes
+    static final int MIN_COMPRESS_BYTES = 4096;
+
+    @Param({"code", "log", "prose"})
+    public String kind;
+
+    @Param({"2048", "16384", "262144"})
+    public int chars;
+
+    private String text;
+    private String stored;
+
+    @Setup
+    public void setUp() {
+        text = sample(kind, chars);
+        stored = NoteContent.ofText(text).toStored(MIN_COMPRESS_BYTES);
+    }
+
+    @Benchmark
+    public String write() {
+        return NoteContent.ofText(text).toStored(MIN_COMPRESS_BYTES);
+    }
+
+    @Benchmark
+    public String read() {
+        return NoteContent.ofStored(stored).getText();
+    }
+
+    // Loading a row without touching the body, as listings and ownership checks do
+    @Benchmark
+    public NoteContent loadWithoutReading() {
+        return NoteContent.ofStored(stored);
+    }
+
+    static String sample(String kind, int chars) {
+        return switch (kind) {
+            case "code" -> BenchmarkFixtures.code(chars);
+            case "prose" -> BenchmarkFixtures.text(chars);
+            case "log" -> log(chars);
+            default -> throw new IllegalArgumentException(kind);
+        };
+    }
+
+    // Test-run output: repetitive structure with varying timestamps, ids and durations
+    private static String log(int chars) {
+        Random random = new Random(42);
+        String[] levels = {"INFO", "INFO", "INFO", "DEBUG", "WARN"};
+        String[] messages = {"Executing test case", "Expected output matched", "Heap usage sampled",
+                "Retrying flaky assertion", "Input size"};
+        StringBuilder sb = new StringBuilder(chars + 128);
+        long millis = 1_700_000_000_000L;
+        while (sb.length() < chars) {
+            millis += random.nextInt(50);
+            sb.append(millis).append(' ').append(levels[random.nextInt(levels.length)])
+                    .append(" [worker-").append(random.nextInt(8)).append("] ")
+                    .append(messages[random.nextInt(messages.length)])
+                    .append(" #").append(random.nextInt(100_000))
+                    .append(" in ").append(random.nextInt(2000)).append("ms\n");
+        }
+        sb.setLength(chars);
+        return sb.toString();
+    }
+
+    public static void main(String[] args) {
+        System.out.printf("%-6s %8s %10s %10s %7s%n", "kind", "chars", "utf8 bytes", "stored", "ratio");
+        for (String kind : new String[] {"code", "log", "prose"}) {
+            for (int chars : new int[] {2048, 16384, 262144}) {
+                String text = sample(kind, chars);
+                int bytes = text.getBytes(StandardCharsets.UTF_8).length;
+                int stored = NoteContent.ofText(text).toStored(MIN_COMPRESS_BYTES).length();
+                System.out.printf("%-6s %8d %10d %10d %7.3f%n", kind, chars, bytes, stored, (double) stored / bytes);
+            }
+        }
+    }
+}
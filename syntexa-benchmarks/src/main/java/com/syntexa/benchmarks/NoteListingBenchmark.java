@@ -0,0 +1,122 @@
+package com.syntexa.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.syntexa.api.dto.NoteDTO;
+import com.syntexa.api.model.User;
+import com.syntexa.api.repository.NoteRepository;
+import com.syntexa.api.service.NoteService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * {@link NoteService#getNotesByAuthor} NoteDTO mapping and streaming JSON output. The repository
+ * is a dynamic proxy that builds DTOs from pre-fetched column tuples, the way Hibernate runs a
+ * constructor projection, and the page is written to a discarding stream, so only the
+ * in-process mapping and serialization cost is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NoteListingBenchmark {
+
+    @Param({"50", "200"})
+    public int pageSize;
+
+    @Param({"false", "true"})
+    public boolean includeContent;
+
+    private NoteService noteService;
+    private ObjectMapper objectMapper;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = BenchmarkFixtures.user(7L);
+        String content = BenchmarkFixtures.code(4_000);
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= pageSize + 1; id++) {
+            rows.add(new Object[] {id, "Approach " + id, content, "java", id % 25, "Problem " + id % 25,
+                    id % 10 == 0 ? "starter-note-7" : null});
+        }
+        NoteRepository repository = (NoteRepository) Proxy.newProxyInstance(
+                NoteRepository.class.getClassLoader(),
+                new Class<?>[] {NoteRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "streamSummariesByAuthorId" -> project(rows, false);
+                    case "streamDetailsByAuthorId" -> project(rows, true);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        noteService = new NoteService(repository, null, null, null, null, null, new NoOpTransactionManager(), 10_000L);
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    private static Stream<NoteDTO> project(List<Object[]> rows, boolean withContent) {
+        return rows.stream().map(r -> withContent
+                ? new NoteDTO((Long) r[0], (String) r[1], (String) r[2], (String) r[3], (Long) r[4], (String) r[5], (String) r[6])
+                : new NoteDTO((Long) r[0], (String) r[1], (String) r[3], (Long) r[4], (String) r[5], (String) r[6]));
+    }
+
+    @Benchmark
+    public void getNotesByAuthor(Blackhole blackhole) throws Exception {
+        objectMapper.writeValue(new BlackholeOutputStream(blackhole),
+                noteService.getNotesByAuthor(user, null, pageSize, includeContent));
+    }
+
+    private static final class BlackholeOutputStream extends OutputStream {
+        private final Blackhole blackhole;
+
+        BlackholeOutputStream(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(int b) {
+            blackhole.consume(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            blackhole.consume(b);
+        }
+    }
+
+    private static final class NoOpTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.syntexa.benchmarks;
+
+import com.syntexa.api.config.ConnectionLimitingDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request execution on Tomcat's default platform pool (200 threads) versus one virtual thread per
+ * request, for a JDBC-bound request against a 10-connection pool. {@code request} is sampled
+ * while {@code inFlight} other requests keep the executor busy, so its percentiles are the
+ * request latency under load; {@code burst} gives throughput. The virtual mode needs Java 21+.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class RequestExecutionBenchmark {
+
+    private static final int POOL_SIZE = 10;
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final long QUERY_MILLIS = 2;
+    private static final int BURST_SIZE = 1000;
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    @Param({"1000"})
+    public int inFlight;
+
+    private ExecutorService executor;
+    private DataSource dataSource;
+    private Thread loadGenerator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("virtual".equals(mode)) {
+            executor = virtualThreadPerTaskExecutor();
+            dataSource = new ConnectionLimitingDataSource(new SimulatedPool(POOL_SIZE), POOL_SIZE, 30_000);
+        } else {
+            executor = new ThreadPoolExecutor(TOMCAT_MAX_THREADS, TOMCAT_MAX_THREADS, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>());
+            dataSource = new SimulatedPool(POOL_SIZE);
+        }
+        Semaphore slots = new Semaphore(inFlight);
+        loadGenerator = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    slots.acquire();
+                    executor.execute(() -> {
+                        try {
+                            handle();
+                        } finally {
+                            slots.release();
+                        }
+                    });
+                }
+            } catch (InterruptedException | RejectedExecutionException e) {
+                // trial over
+            }
+        }, "load-generator");
+        loadGenerator.setDaemon(true);
+        loadGenerator.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        loadGenerator.interrupt();
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Object request() throws Exception {
+        return CompletableFuture.runAsync(this::handle, executor).get();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void burst(Blackhole bh) {
+        CompletableFuture<?>[] requests = new CompletableFuture<?>[BURST_SIZE];
+        for (int i = 0; i < BURST_SIZE; i++) {
+            requests[i] = CompletableFuture.runAsync(this::handle, executor);
+        }
+        bh.consume(CompletableFuture.allOf(requests).join());
+    }
+
+    // A request that does a little CPU work around one short query
+    private void handle() {
+        Blackhole.consumeCPU(2_000);
+        try (Connection connection = dataSource.getConnection()) {
+            Thread.sleep(QUERY_MILLIS);
+            connection.isValid(0);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Blackhole.consumeCPU(2_000);
+    }
+
+    private static ExecutorService virtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21+", e);
+        }
+    }
+
+    /**
+     * Stands in for Hikari: a fixed set of connections handed out from a blocking queue.
+     */
+    static final class SimulatedPool extends AbstractDataSource {
+
+        private final BlockingQueue<Connection> idle;
+
+        SimulatedPool(int size) {
+            idle = new ArrayBlockingQueue<>(size);
+            for (int i = 0; i < size; i++) {
+                idle.add(connection());
+            }
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            try {
+                Connection connection = idle.poll(30, TimeUnit.SECONDS);
+                if (connection == null) {
+                    throw new SQLTransientConnectionException("Connection not available");
+                }
+                return connection;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientConnectionException("Interrupted", e);
+            }
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+
+        private Connection connection() {
+            Connection[] self = new Connection[1];
+            self[0] = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] {Connection.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "close" -> {
+                            idle.offer(self[0]);
+                            yield null;
+                        }
+                        case "isValid" -> true;
+                        default -> null;
+                    });
+            return self[0];
+        }
+    }
+}
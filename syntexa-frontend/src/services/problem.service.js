@@ -18,15 +18,33 @@ const authHeader = async () => {
     return { Authorization: 'Bearer ' + token };
 };
 
-const getAllProblems = async () => {
+// The catalog is cursor-paginated; pass the previous page's nextCursor to continue
+const getProblemsPage = async (cursor = null, limit = 50) => {
     try {
-        const response = await axios.get(API_URL + "problems");
+        const params = { limit };
+        if (cursor) params.cursor = cursor;
+        const response = await axios.get(API_URL + "problems", { params });
         return response.data;
     } catch (error) {
         throw error.response?.data?.message || error.message;
     }
 };
 
+// Follows nextCursor until the last page, so callers get every item rather than the first page
+const collectPages = async (fetchPage) => {
+    const items = [];
+    let cursor = null;
+    do {
+        const page = await fetchPage(cursor);
+        items.push(...page.items);
+        cursor = page.hasMore ? page.nextCursor : null;
+    } while (cursor);
+    return items;
+};
+
+// The whole catalog, fetched in maximum-size pages (the API caps a page at 200)
+const getAllProblems = () => collectPages((cursor) => getProblemsPage(cursor, 200));
+
 const getProblemById = async (id) => {
     try {
         const response = await axios.get(API_URL + "problems/" + id);
@@ -97,17 +115,27 @@ const getCurrentUserProfile = async () => {
     }
 };
 
-const getMyNotes = async () => {
+// One page of the user's notes; pass the previous page's nextCursor to continue
+const getMyNotesPage = async (cursor = null, limit = 50, includeContent = false) => {
     try {
-        const response = await axios.get(API_URL + "notes/mine", { headers: await authHeader() });
+        const params = { includeContent, limit };
+        if (cursor) params.cursor = cursor;
+        const response = await axios.get(API_URL + "notes/mine", {
+            headers: await authHeader(),
+            params
+        });
         return response.data;
     } catch (error) {
         throw error.response?.data?.message || error.message;
     }
 };
 
+// All of the user's notes; the list page needs bodies for its search and previews
+const getMyNotes = () => collectPages((cursor) => getMyNotesPage(cursor, 200, true));
+
 const ProblemService = {
     getAllProblems,
+    getProblemsPage,
     getProblemById,
     createProblem,
     addNoteToProblem,
@@ -116,6 +144,7 @@ const ProblemService = {
     shareNote,
     getCurrentUserProfile,
     getMyNotes,
+    getMyNotesPage,
 };
 
 export default ProblemService;